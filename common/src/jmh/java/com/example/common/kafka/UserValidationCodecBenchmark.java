@@ -0,0 +1,102 @@
+package com.example.common.kafka;
+
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encoding and decoding a validation request and a response with {@code userIds} ids, binary codec against
+ * the Jackson-backed JSON serializers the services used before. Payload sizes are printed once per fork
+ * during setup. Run with {@code ./gradlew :common:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserValidationCodecBenchmark {
+
+    private static final String TOPIC = "user-existence-request";
+
+    @Param({"2", "100"})
+    private int userIds;
+
+    private UserValidationRequest request;
+    private UserValidationResponse response;
+    private byte[] binaryRequest;
+    private byte[] binaryResponse;
+    private byte[] jsonRequest;
+    private byte[] jsonResponse;
+
+    private final UserValidationCodec.RequestSerializer binaryRequestSerializer = new UserValidationCodec.RequestSerializer();
+    private final UserValidationCodec.ResponseSerializer binaryResponseSerializer = new UserValidationCodec.ResponseSerializer();
+    private final UserValidationCodec.RequestDeserializer binaryRequestDeserializer = new UserValidationCodec.RequestDeserializer();
+    private final UserValidationCodec.ResponseDeserializer binaryResponseDeserializer = new UserValidationCodec.ResponseDeserializer();
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>().noTypeInfo();
+    private final JsonDeserializer<UserValidationRequest> jsonRequestDeserializer =
+            new JsonDeserializer<>(UserValidationRequest.class, false);
+    private final JsonDeserializer<UserValidationResponse> jsonResponseDeserializer =
+            new JsonDeserializer<>(UserValidationResponse.class, false);
+
+    @Setup
+    public void setUp() {
+        List<UUID> ids = IntStream.range(0, userIds).mapToObj(i -> UUID.randomUUID()).toList();
+        String correlationId = UUID.randomUUID().toString();
+        request = new UserValidationRequest(correlationId, ids);
+        // Worst case for the response: every requested id is missing
+        response = new UserValidationResponse(correlationId, false, "Missing users", ids);
+
+        binaryRequest = binaryRequestSerializer.serialize(TOPIC, request);
+        binaryResponse = binaryResponseSerializer.serialize(TOPIC, response);
+        jsonRequest = jsonSerializer.serialize(TOPIC, request);
+        jsonResponse = jsonSerializer.serialize(TOPIC, response);
+
+        System.out.printf("%n%d ids: request binary %,d B / JSON %,d B, response binary %,d B / JSON %,d B%n",
+                userIds, binaryRequest.length, jsonRequest.length, binaryResponse.length, jsonResponse.length);
+    }
+
+    @Benchmark
+    public byte[] binaryEncodeRequest() {
+        return binaryRequestSerializer.serialize(TOPIC, request);
+    }
+
+    @Benchmark
+    public byte[] jsonEncodeRequest() {
+        return jsonSerializer.serialize(TOPIC, request);
+    }
+
+    @Benchmark
+    public UserValidationRequest binaryDecodeRequest() {
+        return binaryRequestDeserializer.deserialize(TOPIC, binaryRequest);
+    }
+
+    @Benchmark
+    public UserValidationRequest jsonDecodeRequest() {
+        return jsonRequestDeserializer.deserialize(TOPIC, jsonRequest);
+    }
+
+    @Benchmark
+    public byte[] binaryEncodeResponse() {
+        return binaryResponseSerializer.serialize(TOPIC, response);
+    }
+
+    @Benchmark
+    public byte[] jsonEncodeResponse() {
+        return jsonSerializer.serialize(TOPIC, response);
+    }
+
+    @Benchmark
+    public UserValidationResponse binaryDecodeResponse() {
+        return binaryResponseDeserializer.deserialize(TOPIC, binaryResponse);
+    }
+
+    @Benchmark
+    public UserValidationResponse jsonDecodeResponse() {
+        return jsonResponseDeserializer.deserialize(TOPIC, jsonResponse);
+    }
+}
@@ -2,6 +2,11 @@ package com.example.common.constants;
 public final class KafkaTopics {
     public static final String USER_EXISTENCE_REQUEST = "user-existence-request";
     public static final String USER_EXISTENCE_RESPONSE = "user-existence-response";
+    // Compacted, keyed by user id: the latest UserRegistered/UserDeleted per user is kept forever
+    public static final String USER_LIFECYCLE = "user-lifecycle";
+    // Keyed by conversation id, so a conversation's messages stay in order on one partition; every
+    // conversation-service node reads all partitions and delivers to the sessions connected to it
+    public static final String CHAT_MESSAGES = "chat-messages";
 
     private KafkaTopics() {
         throw new AssertionError("Cannot instantiate constants class");
@@ -1,8 +1,20 @@
 package com.example.common.dto;
 
 
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@code missingUserIds} names the requested ids that do not exist, so a batch caller can tell which
+ * of its pairs failed; it is empty when the request was valid or could not be checked at all.
+ */
 public record UserValidationResponse(
         String correlationId,
         boolean isValid,
-        String message
-) {}
\ No newline at end of file
+        String message,
+        List<UUID> missingUserIds
+) {
+    public UserValidationResponse(String correlationId, boolean isValid, String message) {
+        this(correlationId, isValid, message, List.of());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.common.events;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by auth-service on {@link com.example.common.constants.KafkaTopics#USER_LIFECYCLE},
+ * keyed by {@link #userId()} so compaction keeps only the latest event per user.
+ * The concrete type travels in the payload, so consumers need no type headers.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = UserRegistered.class, name = "UserRegistered"),
+        @JsonSubTypes.Type(value = UserDeleted.class, name = "UserDeleted")
+})
+public sealed interface UserLifecycleEvent permits UserRegistered, UserDeleted {
+    UUID userId();
+
+    Instant occurredAt();
+}
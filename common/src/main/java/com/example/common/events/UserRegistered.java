@@ -0,0 +1,9 @@
+package com.example.common.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record UserRegistered(
+        UUID userId,
+        Instant occurredAt
+) implements UserLifecycleEvent {}
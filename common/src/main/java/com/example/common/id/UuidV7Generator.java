@@ -0,0 +1,17 @@
+package com.example.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+
+/**
+ * Plugs {@link UuidV7} into Hibernate: {@code @UuidGenerator(algorithm = UuidV7Generator.class)}.
+ */
+public class UuidV7Generator implements UuidValueGenerator {
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return UuidV7.next();
+    }
+}
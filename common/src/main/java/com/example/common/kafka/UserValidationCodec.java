@@ -0,0 +1,214 @@
+package com.example.common.kafka;
+
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary wire format for the user validation request-reply messages.
+ * <p>
+ * Every payload starts with a {@link #VERSION} byte. Strings are a varint of the UTF-8 length plus one
+ * (zero for null) followed by the bytes; id lists are a varint count followed by each UUID as 16 raw
+ * big-endian bytes. A request is {@code version, correlationId, userIds}; a response is
+ * {@code version, flags (bit 0 = valid), correlationId, message, missingUserIds}.
+ * <p>
+ * The deserializers also read JSON, recognised by its leading {@code '{'} (never a version byte), so
+ * consumers can switch first and producers opt into the binary format whenever they are ready.
+ */
+public final class UserValidationCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int UUID_BYTES = 16;
+    private static final byte VALID = 1;
+    private static final byte JSON_OBJECT = '{';
+
+    private UserValidationCodec() {
+    }
+
+    public static byte[] encode(UserValidationRequest request) {
+        byte[] correlationId = utf8(request.correlationId());
+        List<UUID> userIds = request.userIds() == null ? List.of() : request.userIds();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + stringSize(correlationId) + uuidsSize(userIds));
+        buffer.put(VERSION);
+        putString(buffer, correlationId);
+        putUuids(buffer, userIds);
+        return buffer.array();
+    }
+
+    public static byte[] encode(UserValidationResponse response) {
+        byte[] correlationId = utf8(response.correlationId());
+        byte[] message = utf8(response.message());
+        List<UUID> missingUserIds = response.missingUserIds() == null ? List.of() : response.missingUserIds();
+        ByteBuffer buffer = ByteBuffer.allocate(
+                2 + stringSize(correlationId) + stringSize(message) + uuidsSize(missingUserIds));
+        buffer.put(VERSION);
+        buffer.put(response.isValid() ? VALID : 0);
+        putString(buffer, correlationId);
+        putString(buffer, message);
+        putUuids(buffer, missingUserIds);
+        return buffer.array();
+    }
+
+    public static UserValidationRequest decodeRequest(byte[] data) {
+        ByteBuffer buffer = versioned(data);
+        try {
+            return new UserValidationRequest(getString(buffer), getUuids(buffer));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new SerializationException("Truncated or corrupt user validation request", e);
+        }
+    }
+
+    public static UserValidationResponse decodeResponse(byte[] data) {
+        ByteBuffer buffer = versioned(data);
+        try {
+            boolean valid = (buffer.get() & VALID) != 0;
+            return new UserValidationResponse(getString(buffer), valid, getString(buffer), getUuids(buffer));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new SerializationException("Truncated or corrupt user validation response", e);
+        }
+    }
+
+    private static ByteBuffer versioned(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) {
+            throw new SerializationException("Unsupported user validation payload version "
+                    + (data.length == 0 ? "(empty)" : data[0]));
+        }
+        return ByteBuffer.wrap(data, 1, data.length - 1);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] utf8) {
+        return utf8 == null ? 1 : varintSize(utf8.length + 1) + utf8.length;
+    }
+
+    private static int uuidsSize(List<UUID> uuids) {
+        return varintSize(uuids.size()) + uuids.size() * UUID_BYTES;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] utf8) {
+        if (utf8 == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        putVarint(buffer, utf8.length + 1);
+        buffer.put(utf8);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void putUuids(ByteBuffer buffer, List<UUID> uuids) {
+        putVarint(buffer, uuids.size());
+        for (UUID uuid : uuids) {
+            buffer.putLong(uuid.getMostSignificantBits());
+            buffer.putLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static List<UUID> getUuids(ByteBuffer buffer) {
+        int count = getVarint(buffer);
+        if (count > buffer.remaining() / UUID_BYTES) {
+            throw new BufferUnderflowException();
+        }
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        return uuids;
+    }
+
+    private static int varintSize(int value) {
+        return (38 - Integer.numberOfLeadingZeros(value | 1)) / 7;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative varint");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 5 bytes");
+    }
+
+    public static class RequestSerializer implements Serializer<UserValidationRequest> {
+
+        @Override
+        public byte[] serialize(String topic, UserValidationRequest request) {
+            return request == null ? null : encode(request);
+        }
+    }
+
+    public static class ResponseSerializer implements Serializer<UserValidationResponse> {
+
+        @Override
+        public byte[] serialize(String topic, UserValidationResponse response) {
+            return response == null ? null : encode(response);
+        }
+    }
+
+    public static class RequestDeserializer implements Deserializer<UserValidationRequest> {
+
+        private final JsonDeserializer<UserValidationRequest> json =
+                new JsonDeserializer<>(UserValidationRequest.class, false);
+
+        @Override
+        public UserValidationRequest deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            return data.length > 0 && data[0] == JSON_OBJECT ? json.deserialize(topic, data) : decodeRequest(data);
+        }
+    }
+
+    public static class ResponseDeserializer implements Deserializer<UserValidationResponse> {
+
+        private final JsonDeserializer<UserValidationResponse> json =
+                new JsonDeserializer<>(UserValidationResponse.class, false);
+
+        @Override
+        public UserValidationResponse deserialize(String topic, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            return data.length > 0 && data[0] == JSON_OBJECT ? json.deserialize(topic, data) : decodeResponse(data);
+        }
+    }
+}
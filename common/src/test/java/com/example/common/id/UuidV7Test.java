@@ -0,0 +1,64 @@
+package com.example.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_VersionVariantAndTimestamp() {
+        Instant before = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        UUID id = UuidV7.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertFalse(UuidV7.timestamp(id).isBefore(before));
+        assertFalse(UuidV7.timestamp(id).isAfter(Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    void next_BurstWithinOneMillisecond_StrictlyIncreasingAsStrings() {
+        List<UUID> ids = IntStream.range(0, 100_000).mapToObj(i -> UuidV7.next()).toList();
+
+        // String order equals Postgres' unsigned byte order
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).toString().compareTo(ids.get(i).toString()) < 0);
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+        }
+    }
+
+    @Test
+    void next_ConcurrentThreads_Unique() throws InterruptedException {
+        ConcurrentLinkedQueue<UUID> ids = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(UuidV7.next());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<UUID> distinct = new HashSet<>(ids);
+        assertEquals(160_000, distinct.size());
+    }
+
+    @Test
+    void timestamp_RandomUuid_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.common.kafka;
+
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserValidationCodecTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Test
+    void request_RoundTrip_UuidsAsSixteenBytes() {
+        UserValidationRequest request = new UserValidationRequest(UUID.randomUUID().toString(), List.of(alice, bob));
+
+        byte[] encoded = UserValidationCodec.encode(request);
+
+        assertEquals(UserValidationCodec.VERSION, encoded[0]);
+        // version + (length varint + 36 chars) + count varint + 2 x 16
+        assertEquals(1 + 1 + 36 + 1 + 32, encoded.length);
+        assertEquals(request, new UserValidationCodec.RequestDeserializer().deserialize("t", encoded));
+    }
+
+    @Test
+    void response_RoundTripWithNullsAndManyIds() {
+        List<UUID> missing = IntStream.range(0, 300).mapToObj(i -> UUID.randomUUID()).toList();
+        UserValidationResponse invalid = new UserValidationResponse("c-ü", false, "Missing users", missing);
+        UserValidationResponse nulls = new UserValidationResponse(null, true, null, List.of());
+
+        assertEquals(invalid, UserValidationCodec.decodeResponse(UserValidationCodec.encode(invalid)));
+        assertEquals(nulls, UserValidationCodec.decodeResponse(UserValidationCodec.encode(nulls)));
+    }
+
+    @Test
+    void deserializer_JsonPayload_ReadThroughFallback() {
+        UserValidationResponse response = new UserValidationResponse("c", false, "Missing users", List.of(bob));
+        byte[] json;
+        try (JsonSerializer<UserValidationResponse> serializer = new JsonSerializer<>()) {
+            json = serializer.serialize("t", response);
+        }
+
+        assertEquals(response, new UserValidationCodec.ResponseDeserializer().deserialize("t", json));
+    }
+
+    @Test
+    void decode_UnknownVersionOrTruncated_SerializationException() {
+        byte[] encoded = UserValidationCodec.encode(new UserValidationRequest("c", List.of(alice)));
+        byte[] futureVersion = encoded.clone();
+        futureVersion[0] = 2;
+
+        assertThrows(SerializationException.class, () -> UserValidationCodec.decodeRequest(futureVersion));
+        assertThrows(SerializationException.class,
+                () -> UserValidationCodec.decodeRequest(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(SerializationException.class, () -> UserValidationCodec.decodeRequest(new byte[0]));
+    }
+
+    @Test
+    void deserializer_Tombstone_Null() {
+        assertNull(new UserValidationCodec.RequestDeserializer().deserialize("t", null));
+    }
+}
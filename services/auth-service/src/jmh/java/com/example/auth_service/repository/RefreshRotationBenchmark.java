@@ -0,0 +1,94 @@
+package com.example.auth_service.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh-token bookkeeping against a real Redis: the former sequential calls vs the single
+ * rotation script. Needs a Redis on {@code redis.host}/{@code redis.port} (localhost:6379 by default).
+ * Run with {@code ./gradlew :services:auth-service:jmh}, or the jmh jar with {@code -t 8} for contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RefreshRotationBenchmark {
+
+    private static final long TTL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private LettuceConnectionFactory connectionFactory;
+    private TokenRepository tokenRepository;
+
+    @Setup
+    public void setUp() {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.afterPropertiesSet();
+        tokenRepository = new TokenRepository(template);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        String email;
+        String current;
+        long generation;
+
+        @Setup
+        public void setUp(RefreshRotationBenchmark benchmark) {
+            email = "bench-" + UUID.randomUUID() + "@example.com";
+            current = token();
+            benchmark.tokenRepository.saveRefreshToken(email, current, TTL_MS);
+        }
+
+        String next() {
+            return token();
+        }
+
+        private String token() {
+            return email + ":" + generation++;
+        }
+    }
+
+    /** What a refresh paid before: read stored, write new twice, revoke old. */
+    @Benchmark
+    public boolean sequentialCalls(Session session) {
+        String stored = tokenRepository.getRefreshToken(session.email);
+        if (!session.current.equals(stored)) {
+            return false;
+        }
+        String next = session.next();
+        tokenRepository.saveRefreshToken(session.email, next, TTL_MS);
+        tokenRepository.saveRefreshToken(session.email, next, TTL_MS);
+        tokenRepository.revokeJti(session.current, TTL_MS);
+        session.current = next;
+        return true;
+    }
+
+    @Benchmark
+    public boolean atomicRotation(Session session) {
+        String next = session.next();
+        boolean rotated = tokenRepository.rotateRefreshToken(
+                session.email, session.current, next, TTL_MS, session.current, TTL_MS);
+        session.current = next;
+        return rotated;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.auth_service.repository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The users id queries before (varchar(255) ids) and after (native uuid ids) the V2 migration,
+ * run against scratch tables holding the same ids. Index sizes are printed during setup.
+ * Needs a Postgres at {@code jdbc.url} (default {@code jdbc:postgresql://localhost:5432/postgres},
+ * user {@code jdbc.user}/{@code jdbc.password}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserIdQueryBenchmark {
+
+    private static final int SAMPLE = 4096;
+
+    @Param({"varchar", "uuid"})
+    private String idType;
+
+    @Param({"2", "100"})
+    private int batch;
+
+    @Param("1000000")
+    private int users;
+
+    private Connection connection;
+    private PreparedStatement inQuery;
+    private PreparedStatement existsQuery;
+    private UUID[] sample;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("jdbc.user", "postgres"),
+                System.getProperty("jdbc.password", ""));
+        String table = "bench_users_" + idType;
+        String columnType = idType.equals("uuid") ? "uuid" : "varchar(255)";
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id " + columnType + " PRIMARY KEY, email varchar(100) NOT NULL)");
+            statement.execute("INSERT INTO " + table + " SELECT md5(g::text)::uuid" + (idType.equals("uuid") ? "" : "::text")
+                    + ", 'user' || g || '@example.com' FROM generate_series(1, " + users + ") g");
+            statement.execute("VACUUM ANALYZE " + table);
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT pg_relation_size('" + table + "_pkey'), pg_relation_size('" + table + "')")) {
+                rs.next();
+                System.out.printf("%n%s ids, %,d users: primary key index %,d bytes, table %,d bytes%n",
+                        idType, users, rs.getLong(1), rs.getLong(2));
+            }
+        }
+
+        sample = new UUID[SAMPLE];
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT md5(g::text)::uuid FROM generate_series(1, " + users + ", " + Math.max(1, users / SAMPLE) + ") g LIMIT " + SAMPLE)) {
+            for (int i = 0; rs.next(); i++) {
+                sample[i] = rs.getObject(1, UUID.class);
+            }
+        }
+
+        StringBuilder placeholders = new StringBuilder("?");
+        for (int i = 1; i < batch; i++) {
+            placeholders.append(",?");
+        }
+        // Same shapes Hibernate sends for findAllExistingUserIds and existsById
+        inQuery = connection.prepareStatement("SELECT id FROM " + table + " WHERE id IN (" + placeholders + ")");
+        existsQuery = connection.prepareStatement("SELECT count(*) FROM " + table + " WHERE id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_users_" + idType);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Object> findAllExistingUserIds() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < batch; i++) {
+            bind(inQuery, i + 1, sample[random.nextInt(SAMPLE)]);
+        }
+        List<Object> ids = new ArrayList<>(batch);
+        try (ResultSet rs = inQuery.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getObject(1));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public long existsById() throws SQLException {
+        bind(existsQuery, 1, sample[ThreadLocalRandom.current().nextInt(SAMPLE)]);
+        try (ResultSet rs = existsQuery.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void bind(PreparedStatement statement, int index, UUID id) throws SQLException {
+        if (idType.equals("uuid")) {
+            statement.setObject(index, id);
+        } else {
+            statement.setString(index, id.toString());
+        }
+    }
+}
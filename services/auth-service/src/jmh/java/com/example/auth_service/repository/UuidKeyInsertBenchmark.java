@@ -0,0 +1,94 @@
+package com.example.auth_service.repository;
+
+import com.example.common.id.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched inserts into a uuid primary key with random (v4) against time-ordered (v7) ids, on a scratch
+ * table preloaded with {@code preload} rows of the same kind. Each operation commits one batch of
+ * {@code batch} rows. Index and table sizes per row are printed at the end of the trial.
+ * Needs a Postgres at {@code jdbc.url} (default {@code jdbc:postgresql://localhost:5432/postgres},
+ * user {@code jdbc.user}/{@code jdbc.password}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UuidKeyInsertBenchmark {
+
+    @Param({"v4", "v7"})
+    private String idVersion;
+
+    @Param("1000")
+    private int batch;
+
+    @Param("2000000")
+    private int preload;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private String table;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("jdbc.user", "postgres"));
+        properties.setProperty("password", System.getProperty("jdbc.password", ""));
+        properties.setProperty("reWriteBatchedInserts", "true");
+        connection = DriverManager.getConnection(
+                System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"), properties);
+        table = "bench_uuid_keys_" + idVersion;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, created_at timestamptz NOT NULL)");
+        }
+        insert = connection.prepareStatement("INSERT INTO " + table + " (id, created_at) VALUES (?, now())");
+        connection.setAutoCommit(false);
+        for (int loaded = 0; loaded < preload; loaded += batch) {
+            insertBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute("VACUUM ANALYZE " + table);
+            statement.execute("CHECKPOINT");
+            connection.setAutoCommit(false);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT count(*), pg_relation_size('" + table + "_pkey'), "
+                    + "pg_relation_size('" + table + "') FROM " + table)) {
+                rs.next();
+                long rows = rs.getLong(1);
+                System.out.printf("%n%s ids, %,d rows: primary key index %,d bytes (%.1f per row), table %,d bytes%n",
+                        idVersion, rows, rs.getLong(2), (double) rs.getLong(2) / rows, rs.getLong(3));
+            }
+            statement.execute("DROP TABLE IF EXISTS " + table);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertBatch() throws SQLException {
+        for (int i = 0; i < batch; i++) {
+            insert.setObject(1, idVersion.equals("v7") ? UuidV7.next() : UUID.randomUUID());
+            insert.addBatch();
+        }
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        return counts.length;
+    }
+}
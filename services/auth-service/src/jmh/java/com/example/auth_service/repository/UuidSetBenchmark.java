@@ -0,0 +1,97 @@
+package com.example.auth_service.repository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the primitive user id index against a {@code HashSet<UUID>}, and the
+ * memory each needs per million users (printed once per fork during setup).
+ * Run with {@code ./gradlew :services:auth-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UuidSetBenchmark {
+
+    private static final int PROBES = 1 << 16;
+
+    @Param("1000000")
+    private int users;
+
+    private UuidSet uuidSet;
+    private Set<UUID> hashSet;
+    private UUID[] present;
+    private UUID[] absent;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        UUID[] ids = new UUID[users];
+        for (int i = 0; i < users; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+
+        long before = usedHeap();
+        uuidSet = new UuidSet(users);
+        for (UUID id : ids) {
+            uuidSet.add(id);
+        }
+        long uuidSetBytes = usedHeap() - before;
+
+        // The HashSet owns its own UUID objects, like one filled from a result set would
+        before = usedHeap();
+        hashSet = new HashSet<>();
+        for (UUID id : ids) {
+            hashSet.add(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        }
+        long hashSetBytes = usedHeap() - before;
+
+        System.out.printf("%n%,d users: UuidSet %,d bytes (%.1f B/user, table %,d bytes), HashSet<UUID> ~%,d bytes (%.1f B/user)%n",
+                users, uuidSetBytes, (double) uuidSetBytes / users, uuidSet.memoryBytes(),
+                hashSetBytes, (double) hashSetBytes / users);
+
+        present = new UUID[PROBES];
+        absent = new UUID[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            UUID id = ids[(int) ((long) i * users / PROBES)];
+            present[i] = new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            absent[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public boolean uuidSetHit() {
+        return uuidSet.contains(present[next()]);
+    }
+
+    @Benchmark
+    public boolean uuidSetMiss() {
+        return uuidSet.contains(absent[next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetHit() {
+        return hashSet.contains(present[next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetMiss() {
+        return hashSet.contains(absent[next()]);
+    }
+
+    private int next() {
+        return cursor++ & (PROBES - 1);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.auth_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold vs warm verification cost of an access token.
+ * Run with {@code ./gradlew :services:auth-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private SecretKey signingKey;
+    private JwtVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        verifier = new JwtVerifier(signingKey, 10_000);
+        token = Jwts.builder()
+                .subject("user@example.com")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(signingKey)
+                .compact();
+        verifier.verify(token);
+    }
+
+    /** What every call paid before: key derivation plus a freshly built parser. */
+    @Benchmark
+    public Claims perCallKeyAndParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims coldVerify() {
+        return verifier.verifyUncached(token);
+    }
+
+    @Benchmark
+    public Claims warmVerify() {
+        return verifier.verify(token);
+    }
+}
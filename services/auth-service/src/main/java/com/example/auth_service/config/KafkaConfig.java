@@ -1,31 +1,51 @@
 package com.example.auth_service.config;
 
+import com.example.common.constants.KafkaTopics;
 import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import com.example.common.kafka.UserValidationCodec;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
 
+    @Value("${kafka.user-validation.codec:json}")
+    private String validationCodec;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+        if (!"binary".equals(validationCodec)) {
+            config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            return new DefaultKafkaProducerFactory<>(config);
+        }
+
+        // Validation replies go out binary; user lifecycle events and anything else stay JSON
+        Map<Class<?>, Serializer<?>> byType = new LinkedHashMap<>();
+        byType.put(UserValidationResponse.class, new UserValidationCodec.ResponseSerializer());
+        byType.put(Object.class, new JsonSerializer<>());
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(),
+                new DelegatingByTypeSerializer(byType, true));
     }
 
     @Bean
@@ -33,6 +53,15 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // Compaction keeps the latest event per user id, so a consumer can rebuild its view from offset 0
+    @Bean
+    public NewTopic userLifecycleTopic() {
+        return TopicBuilder.name(KafkaTopics.USER_LIFECYCLE)
+                .partitions(3)
+                .compact()
+                .build();
+    }
+
 
     @Bean
     public ConsumerFactory<String, UserValidationRequest> consumerFactory() {
@@ -43,10 +72,8 @@ public class KafkaConfig {
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.example.common.dto.UserValidationRequest");
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        // Binary or JSON requests, whichever conversation-service is configured to send
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, UserValidationCodec.RequestDeserializer.class);
         return new DefaultKafkaConsumerFactory<>(props);
     }
     @Bean
@@ -55,5 +82,7 @@ public class KafkaConfig {
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.setReplyTemplate(kafkaTemplate());
+        // spring.kafka.listener.type only configures Boot's own factory, so batch mode is set here
+        factory.setBatchListener(true);
         return factory;
     }}
\ No newline at end of file
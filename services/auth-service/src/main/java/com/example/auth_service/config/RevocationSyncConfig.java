@@ -0,0 +1,35 @@
+package com.example.auth_service.config;
+
+import com.example.auth_service.repository.TokenRepository;
+import com.example.auth_service.security.RevocationNearCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class RevocationSyncConfig {
+
+    @Bean
+    public RedisMessageListenerContainer revocationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            RedisTemplate<String, Object> redisTemplate,
+            RevocationNearCache revocationNearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (body, pattern) -> {
+                    Object message = redisTemplate.getValueSerializer().deserialize(body.getBody());
+                    if (message instanceof String value) {
+                        revocationNearCache.onRevocationMessage(value);
+                    }
+                },
+                new ChannelTopic(TokenRepository.REVOCATION_CHANNEL)
+        );
+        return container;
+    }
+}
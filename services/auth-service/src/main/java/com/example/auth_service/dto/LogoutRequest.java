@@ -18,5 +18,7 @@ public class LogoutRequest {
     @NotBlank(message = "Token is required")
     private String token;
 
+    // Revokes every token of the user instead of just this pair
+    private boolean allDevices;
 
 }
@@ -0,0 +1,90 @@
+package com.example.auth_service.kafka;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.common.events.UserDeleted;
+import com.example.common.events.UserLifecycleEvent;
+import com.example.common.events.UserRegistered;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes user lifecycle events to the compacted {@link KafkaTopics#USER_LIFECYCLE} topic that
+ * other services project into their own user-existence views.
+ * <p>
+ * Users created before the topic existed are seeded by setting
+ * {@code auth.user-events.republish-on-startup} for one start: every id is sent again as
+ * {@link UserRegistered}, and compaction folds the repeats away.
+ */
+@Slf4j
+@Component
+public class UserEventPublisher {
+
+    private static final int REPUBLISH_FETCH_SIZE = 10_000;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean republishOnStartup;
+
+    public UserEventPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${auth.user-events.republish-on-startup:false}") boolean republishOnStartup) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.republishOnStartup = republishOnStartup;
+    }
+
+    public void userRegistered(UUID userId) {
+        publish(new UserRegistered(userId, Instant.now()));
+    }
+
+    public void userDeleted(UUID userId) {
+        publish(new UserDeleted(userId, Instant.now()));
+    }
+
+    // Streams with a server-side cursor, which Postgres only uses inside a transaction
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void republishAll() {
+        if (!republishOnStartup) {
+            return;
+        }
+        AtomicLong published = new AtomicLong();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT id FROM users", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(REPUBLISH_FETCH_SIZE);
+                return statement;
+            }, (ResultSet rs) -> {
+                userRegistered(rs.getObject(1, UUID.class));
+                published.incrementAndGet();
+            });
+            kafkaTemplate.flush();
+            log.info("Republished {} users to {}", published.get(), KafkaTopics.USER_LIFECYCLE);
+        } catch (RuntimeException ex) {
+            log.warn("Republishing users stopped after {} events", published.get(), ex);
+        }
+    }
+
+    private void publish(UserLifecycleEvent event) {
+        kafkaTemplate.send(KafkaTopics.USER_LIFECYCLE, event.userId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish {} for user {}",
+                                event.getClass().getSimpleName(), event.userId(), ex);
+                    }
+                });
+    }
+}
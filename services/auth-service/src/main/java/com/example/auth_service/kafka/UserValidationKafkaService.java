@@ -1,6 +1,6 @@
 package com.example.auth_service.kafka;
 
-import com.example.auth_service.repository.UserRepository;
+import com.example.auth_service.repository.UserIdIndex;
 import com.example.common.constants.KafkaTopics;
 import com.example.common.dto.UserValidationRequest;
 import com.example.common.dto.UserValidationResponse;
@@ -8,80 +8,112 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.kafka.support.SendResult;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
-import org.springframework.util.concurrent.ListenableFutureCallback;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserValidationKafkaService {
-    private final UserRepository userRepository;
+    private final UserIdIndex userIdIndex;
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    // A whole poll is answered with one index lookup (at most one IN query) and one producer flush
     @KafkaListener(topics = KafkaTopics.USER_EXISTENCE_REQUEST)
-    public void validateUsers(
-            @Payload UserValidationRequest request,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            @Header("kafka_correlationId") byte[] correlationIdBytes
-    ) {
-        String correlationId = new String(correlationIdBytes, StandardCharsets.UTF_8);
+    public void validateUsers(List<ConsumerRecord<String, UserValidationRequest>> records) {
+        List<ConsumerRecord<String, UserValidationRequest>> requests = new ArrayList<>(records.size());
+        Set<UUID> requestedIds = new LinkedHashSet<>();
 
-        log.info("Processing validation for correlationId: {}, key: {}", correlationId, key);
+        for (ConsumerRecord<String, UserValidationRequest> record : records) {
+            if (record.value() == null || record.value().userIds() == null) {
+                log.warn("Skipping undeserializable validation request at offset {}", record.offset());
+                reply(record, new UserValidationResponse(correlationId(record), false, "Error: unreadable request"));
+                continue;
+            }
+            requests.add(record);
+            requestedIds.addAll(record.value().userIds());
+        }
 
-        try {
-            List<UUID> existingUsers = userRepository.findAllExistingUserIds(request.userIds());
-            boolean allUsersExist = existingUsers.size() == request.userIds().size();
+        log.info("Processing {} validation requests with {} distinct user ids", requests.size(), requestedIds.size());
 
-            UserValidationResponse response = new UserValidationResponse(
-                    correlationId,
-                    allUsersExist,
-                    allUsersExist ? "All users exist" : "Missing users"
-            );
+        try {
+            Set<UUID> existingIds = userIdIndex.findExisting(requestedIds);
 
-            // Create ProducerRecord with Object type
-            ProducerRecord<String, Object> responseRecord = new ProducerRecord<>(
-                    KafkaTopics.USER_EXISTENCE_RESPONSE,
-                    response
-            );
+            for (ConsumerRecord<String, UserValidationRequest> record : requests) {
+                List<UUID> missingUserIds = record.value().userIds().stream()
+                        .filter(userId -> !existingIds.contains(userId))
+                        .distinct()
+                        .toList();
+                boolean allUsersExist = missingUserIds.isEmpty();
+                reply(record, new UserValidationResponse(
+                        correlationId(record),
+                        allUsersExist,
+                        allUsersExist ? "All users exist" : "Missing users",
+                        missingUserIds
+                ));
+            }
+        } catch (Exception e) {
+            log.error("Validation failed for a batch of {} requests", requests.size(), e);
 
-            // Add the correlation ID header back to the response
-            responseRecord.headers().add("kafka_correlationId", correlationIdBytes);
+            for (ConsumerRecord<String, UserValidationRequest> record : requests) {
+                reply(record, new UserValidationResponse(correlationId(record), false, "Error: " + e.getMessage()));
+            }
+        } finally {
+            // Replies are queued by send() above; push them out before the poll's offsets are committed
+            kafkaTemplate.flush();
+        }
+    }
 
-            kafkaTemplate.send(responseRecord).whenComplete((result, ex) -> {
-                if (ex != null) {
-                    log.error("Failed to send response for correlationId: {}", correlationId, ex);
-                } else {
-                    log.debug("Response sent successfully for correlationId: {}", correlationId);
-                }
-            });
+    private void reply(ConsumerRecord<String, UserValidationRequest> request, UserValidationResponse response) {
+        ProducerRecord<String, Object> responseRecord = new ProducerRecord<>(
+                KafkaTopics.USER_EXISTENCE_RESPONSE,
+                replyPartition(request),
+                null,
+                response
+        );
 
-        } catch (Exception e) {
-            log.error("Validation failed for correlationId: {}", correlationId, e);
+        // Add the correlation ID header back to the response
+        Header correlationHeader = request.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+        if (correlationHeader != null) {
+            responseRecord.headers().add(KafkaHeaders.CORRELATION_ID, correlationHeader.value());
+        }
 
-            UserValidationResponse errorResponse = new UserValidationResponse(
-                    correlationId,
-                    false,
-                    "Error: " + e.getMessage()
-            );
+        String correlationId = response.correlationId();
+        kafkaTemplate.send(responseRecord).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to send response for correlationId: {}", correlationId, ex);
+            } else {
+                log.debug("Response sent successfully for correlationId: {}", correlationId);
+            }
+        });
+    }
 
-            ProducerRecord<String, Object> errorRecord = new ProducerRecord<>(
-                    KafkaTopics.USER_EXISTENCE_RESPONSE,
-                    errorResponse
-            );
+    // Each conversation-service instance listens on one partition of the response topic and names it in
+    // REPLY_PARTITION; only the partition is taken from the request, the topic stays fixed
+    private static Integer replyPartition(ConsumerRecord<String, UserValidationRequest> record) {
+        Header header = record.headers().lastHeader(KafkaHeaders.REPLY_PARTITION);
+        if (header == null || header.value().length != Integer.BYTES) {
+            return null;
+        }
+        return ByteBuffer.wrap(header.value()).getInt();
+    }
 
-            errorRecord.headers().add("kafka_correlationId", correlationIdBytes);
-            kafkaTemplate.send(errorRecord);
+    private static String correlationId(ConsumerRecord<String, UserValidationRequest> record) {
+        Header header = record.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+        if (header != null) {
+            return new String(header.value(), StandardCharsets.UTF_8);
         }
+        return record.value() == null ? null : record.value().correlationId();
     }
-}
\ No newline at end of file
+}
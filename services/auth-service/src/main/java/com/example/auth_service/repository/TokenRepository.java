@@ -1,11 +1,43 @@
 package com.example.auth_service.repository;
 import org.springframework.stereotype.Repository;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Repository
 
 public class TokenRepository {
+    public static final String REVOCATION_CHANNEL = "revocations";
+    public static final String JTI_MESSAGE_PREFIX = "jti:";
+    public static final String WATERMARK_MESSAGE_PREFIX = "before:";
+
+    private static final String BLACKLIST_PREFIX = "blacklist:";
+    private static final String REVOKED_JTI_PREFIX = "revoked_jti:";
+    private static final String REVOKED_BEFORE_PREFIX = "revoked_before:";
+
+    // KEYS: refresh_token:<email>, revoked_jti:<old jti>
+    // ARGV: presented token, new token, refresh TTL ms, old token remaining ms, revoked marker, revocation message
+    // Values arrive already encoded by the template's value serializer so they compare byte for byte with stored ones
+    private static final RedisScript<Long> ROTATE_REFRESH_TOKEN = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end\n"
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])\n"
+                    + "if tonumber(ARGV[4]) > 0 then\n"
+                    + "  redis.call('SET', KEYS[2], ARGV[5], 'PX', ARGV[4])\n"
+                    + "  redis.call('PUBLISH', '" + REVOCATION_CHANNEL + "', ARGV[6])\n"
+                    + "end\n"
+                    + "return 1",
+            Long.class
+    );
+
     private final RedisTemplate<String, Object> redisTemplate;
 
     // Constructor injection
@@ -34,10 +66,69 @@ public class TokenRepository {
         redisTemplate.delete("refresh_token:" + email);
     }
 
-    // Adds token to blacklist until it expires
+    /**
+     * Swaps the stored refresh token for a new one and revokes the presented one in a single
+     * server-side script. Returns false, changing nothing, when the presented token is no
+     * longer the stored one, so only one of several concurrent refreshes with the same token wins.
+     * A null jti (legacy token) or non-positive remaining lifetime skips the revocation.
+     */
+    public boolean rotateRefreshToken(String email,
+                                      String presentedToken,
+                                      String newToken,
+                                      long refreshExpirationMs,
+                                      String presentedJti,
+                                      long presentedRemainingMs) {
+        boolean revoke = presentedJti != null && presentedRemainingMs > 0;
+        Long rotated = redisTemplate.execute(
+                ROTATE_REFRESH_TOKEN,
+                RedisSerializer.string(),
+                null,
+                List.of("refresh_token:" + email, REVOKED_JTI_PREFIX + (revoke ? presentedJti : "")),
+                encodeValue(presentedToken),
+                encodeValue(newToken),
+                Long.toString(refreshExpirationMs),
+                Long.toString(revoke ? presentedRemainingMs : 0),
+                encodeValue(1),
+                encodeValue(JTI_MESSAGE_PREFIX + presentedJti)
+        );
+        return rotated != null && rotated == 1L;
+    }
+
+    // Revokes a single token by its jti until the token would have expired anyway
+    public void revokeJti(String jti, long expirationMs) {
+        redisTemplate.opsForValue().set(
+                REVOKED_JTI_PREFIX + jti,
+                1,
+                expirationMs,
+                TimeUnit.MILLISECONDS
+        );
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, JTI_MESSAGE_PREFIX + jti);
+    }
+
+    public boolean isJtiRevoked(String jti) {
+        return redisTemplate.hasKey(REVOKED_JTI_PREFIX + jti);
+    }
+
+    // Revokes every token of the subject issued at or before the given second ("log out everywhere")
+    public void revokeAllIssuedBefore(String subject, long issuedAtEpochSecond, long expirationMs) {
+        redisTemplate.opsForValue().set(
+                REVOKED_BEFORE_PREFIX + subject,
+                issuedAtEpochSecond,
+                expirationMs,
+                TimeUnit.MILLISECONDS
+        );
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, WATERMARK_MESSAGE_PREFIX + issuedAtEpochSecond + ":" + subject);
+    }
+
+    public Long getRevokedBefore(String subject) {
+        Object value = redisTemplate.opsForValue().get(REVOKED_BEFORE_PREFIX + subject);
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    // Legacy per-token blacklist, only written for tokens issued before jti existed
     public void addToBlacklist(String token, long expirationMs) {
         redisTemplate.opsForValue().set(
-                "blacklist:" + token,
+                BLACKLIST_PREFIX + token,
                 "true",
                 expirationMs,
                 TimeUnit.MILLISECONDS
@@ -46,6 +137,41 @@ public class TokenRepository {
 
     // Checks if token is blacklisted
     public boolean isBlacklisted(String token) {
-        return redisTemplate.hasKey("blacklist:" + token);
+        return redisTemplate.hasKey(BLACKLIST_PREFIX + token);
+    }
+
+    // Walks all revoked jtis with SCAN, used to seed the revocation near-cache
+    public void forEachRevokedJti(Consumer<String> action) {
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions(REVOKED_JTI_PREFIX))) {
+            cursor.forEachRemaining(key -> action.accept(key.substring(REVOKED_JTI_PREFIX.length())));
+        }
+    }
+
+    // Walks all per-user watermarks with SCAN + MGET, used to seed the revocation near-cache
+    public void forEachRevocationWatermark(BiConsumer<String, Long> action) {
+        List<String> keys = new ArrayList<>();
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions(REVOKED_BEFORE_PREFIX))) {
+            cursor.forEachRemaining(keys::add);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = values == null ? null : values.get(i);
+            if (value != null) {
+                action.accept(keys.get(i).substring(REVOKED_BEFORE_PREFIX.length()), ((Number) value).longValue());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private String encodeValue(Object value) {
+        byte[] bytes = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ScanOptions scanOptions(String prefix) {
+        return ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.example.auth_service.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory answer to "does this user id exist?", backed by a primitive {@link UuidSet}.
+ * <p>
+ * The set is bulk-loaded once the application is ready by streaming {@code users.id} and
+ * kept current by {@link #add(UUID)} on registration. Until the load finishes every miss is
+ * checked in Postgres. After that a hit never leaves the JVM; a miss is still confirmed in
+ * Postgres while {@code auth.user-index.confirm-misses} is on, because users registered on
+ * another instance only reach this one's index through that fallback.
+ */
+@Slf4j
+@Component
+public class UserIdIndex {
+
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean confirmMisses;
+    private final UuidSet ids;
+    private volatile boolean loaded;
+
+    private final Counter indexHits;
+    private final Counter indexMisses;
+    private final Counter databaseLookups;
+
+    public UserIdIndex(UserRepository userRepository,
+                       JdbcTemplate jdbcTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${auth.user-index.expected-users:100000}") int expectedUsers,
+                       @Value("${auth.user-index.confirm-misses:true}") boolean confirmMisses) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.confirmMisses = confirmMisses;
+        this.ids = new UuidSet(expectedUsers);
+
+        this.indexHits = lookupCounter(meterRegistry, "index_hit");
+        this.indexMisses = lookupCounter(meterRegistry, "index_miss");
+        this.databaseLookups = lookupCounter(meterRegistry, "database");
+        Gauge.builder("auth.user_index.size", ids, UuidSet::size)
+                .description("User ids held in the in-memory index")
+                .register(meterRegistry);
+        Gauge.builder("auth.user_index.memory", ids, UuidSet::memoryBytes)
+                .description("Bytes held by the in-memory user id index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // Streams with a server-side cursor, which Postgres only uses inside a transaction
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT id FROM users", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                return statement;
+            }, (ResultSet rs) -> {
+                ids.add(rs.getObject(1, UUID.class));
+            });
+            loaded = true;
+            log.info("User id index loaded {} ids ({} bytes) in {} ms",
+                    ids.size(), ids.memoryBytes(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("User id index load failed, existence checks stay on the database", ex);
+        }
+    }
+
+    public void add(UUID userId) {
+        if (userId != null) {
+            ids.add(userId);
+        }
+    }
+
+    public boolean exists(UUID userId) {
+        if (ids.contains(userId)) {
+            indexHits.increment();
+            return true;
+        }
+        indexMisses.increment();
+        if (loaded && !confirmMisses) {
+            return false;
+        }
+        databaseLookups.increment();
+        boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            ids.add(userId);
+        }
+        return exists;
+    }
+
+    /**
+     * The subset of {@code userIds} that exist; ids the index does not know are checked with one IN query.
+     */
+    public Set<UUID> findExisting(Collection<UUID> userIds) {
+        Set<UUID> existing = new HashSet<>();
+        List<UUID> unknown = new ArrayList<>();
+        for (UUID userId : userIds) {
+            if (ids.contains(userId)) {
+                existing.add(userId);
+            } else {
+                unknown.add(userId);
+            }
+        }
+        indexHits.increment(existing.size());
+        indexMisses.increment(unknown.size());
+
+        if (!unknown.isEmpty() && (!loaded || confirmMisses)) {
+            databaseLookups.increment();
+            for (UUID userId : userRepository.findAllExistingUserIds(unknown)) {
+                ids.add(userId);
+                existing.add(userId);
+            }
+        }
+        return existing;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.user_index.lookups")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
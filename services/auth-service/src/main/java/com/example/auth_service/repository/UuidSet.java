@@ -0,0 +1,160 @@
+package com.example.auth_service.repository;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing set of UUIDs stored as two longs per slot in one {@code long[]}: 16 bytes
+ * per slot at a load factor of at most 0.6, with no per-entry objects, and a lookup touches
+ * one or two adjacent cache lines with no pointer chasing.
+ * <p>
+ * Reads are lock-free optimistic reads validated against a {@link StampedLock}; writes
+ * (and the occasional resize) take the write lock. Ids are never removed.
+ */
+final class UuidSet {
+
+    private static final double MAX_LOAD = 0.6;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    // slots[2i] = most significant bits, slots[2i + 1] = least significant bits; (0, 0) marks an empty slot
+    private long[] slots;
+    private int size;
+    private int resizeAt;
+    // The nil UUID collides with the empty marker, so it is tracked on the side
+    private boolean containsNil;
+
+    UuidSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    boolean contains(UUID id) {
+        return contains(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    boolean contains(long hi, long lo) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = probe(hi, lo);
+        if (lock.validate(stamp)) {
+            return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return probe(hi, lo);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    boolean add(UUID id) {
+        return add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    boolean add(long hi, long lo) {
+        long stamp = lock.writeLock();
+        try {
+            if (hi == 0 && lo == 0) {
+                boolean added = !containsNil;
+                containsNil = true;
+                return added;
+            }
+            if (!insert(slots, hi, lo)) {
+                return false;
+            }
+            if (++size > resizeAt) {
+                resize();
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size + (containsNil ? 1 : 0);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) slots.length * Long.BYTES;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Bounded by the table size so an inconsistent optimistic read can never spin
+    private boolean probe(long hi, long lo) {
+        if (hi == 0 && lo == 0) {
+            return containsNil;
+        }
+        long[] table = slots;
+        int mask = (table.length >>> 1) - 1;
+        int slot = (int) mix(hi, lo) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long storedHi = table[slot << 1];
+            long storedLo = table[(slot << 1) + 1];
+            if (storedHi == hi && storedLo == lo) {
+                return true;
+            }
+            if (storedHi == 0 && storedLo == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private static boolean insert(long[] table, long hi, long lo) {
+        int mask = (table.length >>> 1) - 1;
+        int slot = (int) mix(hi, lo) & mask;
+        while (true) {
+            long storedHi = table[slot << 1];
+            long storedLo = table[(slot << 1) + 1];
+            if (storedHi == hi && storedLo == lo) {
+                return false;
+            }
+            if (storedHi == 0 && storedLo == 0) {
+                table[slot << 1] = hi;
+                table[(slot << 1) + 1] = lo;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        long[] old = slots;
+        allocate((old.length >>> 1) << 1);
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0 || old[i + 1] != 0) {
+                insert(slots, old[i], old[i + 1]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity << 1];
+        resizeAt = (int) (capacity * MAX_LOAD);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / MAX_LOAD);
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    // Random UUIDs are already well spread, but time-ordered ones are not
+    private static long mix(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
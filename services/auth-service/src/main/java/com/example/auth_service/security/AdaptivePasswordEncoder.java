@@ -0,0 +1,108 @@
+package com.example.auth_service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * BCrypt encoder whose cost is chosen at startup so a single hash takes roughly a target
+ * latency on the current hardware.
+ * <p>
+ * Hashes are stored as {@code {bcrypt}$2a$<cost>$...}: the prefix names the algorithm and
+ * the BCrypt header carries the cost, so every stored hash says how it was produced.
+ * Hashes written before the prefix existed are still matched as plain BCrypt.
+ * {@link #upgradeEncoding(String)} reports hashes outside the current policy so they can be
+ * rewritten on the next successful login.
+ */
+@Slf4j
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    static final String ALGORITHM_ID = "bcrypt";
+    private static final String PREFIX = "{" + ALGORITHM_ID + "}";
+    private static final int MIN_BCRYPT_COST = 4;
+    private static final int MAX_BCRYPT_COST = 31;
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    private final int cost;
+    private final DelegatingPasswordEncoder delegate;
+
+    public AdaptivePasswordEncoder(int cost) {
+        if (cost < MIN_BCRYPT_COST || cost > MAX_BCRYPT_COST) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31, got " + cost);
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+        this.delegate = new DelegatingPasswordEncoder(ALGORITHM_ID, Map.of(ALGORITHM_ID, bcrypt));
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+    }
+
+    /**
+     * Measures one hash at {@code minCost} and picks the highest cost whose extrapolated
+     * latency stays within {@code targetMillis}; each BCrypt cost step doubles the work.
+     */
+    public static AdaptivePasswordEncoder calibrate(long targetMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration");
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long targetNanos = targetMillis * 1_000_000;
+        int cost = minCost;
+        double estimate = bestNanos;
+        while (cost < maxCost && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            cost++;
+        }
+        log.info("Password hashing calibrated to BCrypt cost {} (~{} ms per hash, target {} ms)",
+                cost, Math.round(estimate / 1_000_000), targetMillis);
+        return new AdaptivePasswordEncoder(cost);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * A hash is outside policy when it has no algorithm prefix, uses another algorithm, is
+     * cheaper than the current cost, or costs more than twice the latency budget. One step of
+     * slack above the current cost keeps pods that calibrate one step apart from rewriting
+     * each other's hashes on every login.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(PREFIX)) {
+            return true;
+        }
+        int storedCost = bcryptCost(encodedPassword.substring(PREFIX.length()));
+        return storedCost < cost || storedCost > cost + 1;
+    }
+
+    // "$2a$12$..." -> 12, or -1 when the header is not BCrypt
+    static int bcryptCost(String bcryptHash) {
+        if (bcryptHash.length() < 7 || bcryptHash.charAt(0) != '$' || bcryptHash.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(bcryptHash, 4, 6, 10);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.auth_service.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Principal built from verified access-token claims, so authenticating a request needs no
+ * database lookup. {@code userId} and {@code username} are null for tokens issued before
+ * those claims were added; use {@link UserCache} when the full entity is needed.
+ */
+public record AuthenticatedUser(UUID userId, String email, String username) implements Principal {
+
+    static final String USER_ID_CLAIM = "uid";
+    static final String USERNAME_CLAIM = "username";
+
+    static AuthenticatedUser from(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return new AuthenticatedUser(
+                userId == null ? null : UUID.fromString(userId),
+                claims.getSubject(),
+                claims.get(USERNAME_CLAIM, String.class)
+        );
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.auth_service.security;
 
-import com.example.auth_service.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -9,15 +8,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(UserCache userCache) {
+        this.userCache = userCache;
     }
 
+    // Tokens carry the email as subject, so that is the login name Spring Security hands us
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userCache.get(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.example.auth_service.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -11,10 +15,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.TokenRepository;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -24,34 +30,43 @@ import io.jsonwebtoken.security.SignatureException;
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private long jwtExpirationInMs;
-
-    @Value("${jwt.refreshExpiration}")
-    private long refreshExpirationInMs;
+    private static final SecureRandom JTI_RANDOM = new SecureRandom();
+    private static final Base64.Encoder JTI_ENCODER = Base64.getUrlEncoder().withoutPadding();
 
+    private final long jwtExpirationInMs;
+    private final long refreshExpirationInMs;
+    private final SecretKey signingKey;
+    private final JwtVerifier jwtVerifier;
     private final TokenRepository tokenRepository;
-
-    public JwtTokenProvider(TokenRepository tokenRepository) {
+    private final RevocationNearCache revocationNearCache;
+
+    public JwtTokenProvider(TokenRepository tokenRepository,
+                            RevocationNearCache revocationNearCache,
+                            @Value("${jwt.secret}") String secret,
+                            @Value("${jwt.expiration}") long jwtExpirationInMs,
+                            @Value("${jwt.refreshExpiration}") long refreshExpirationInMs,
+                            @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize) {
         this.tokenRepository = tokenRepository;
+        this.revocationNearCache = revocationNearCache;
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.refreshExpirationInMs = refreshExpirationInMs;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtVerifier = new JwtVerifier(signingKey, claimsCacheMaxSize);
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
-    }
-
-    public String generateToken(String email) {
-        return generateToken(email, jwtExpirationInMs);
+    // Access tokens carry the user id and name so requests can be authenticated from claims alone
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        if (user.getId() != null) {
+            claims.put(AuthenticatedUser.USER_ID_CLAIM, user.getId().toString());
+        }
+        claims.put(AuthenticatedUser.USERNAME_CLAIM, user.getUsername());
+        return generateToken(user.getEmail(), claims, jwtExpirationInMs);
     }
 
+    // Only signs the token; callers store it (login/register) or rotate it in (refresh)
     public String generateRefreshToken(String email) {
-        String refreshToken = generateToken(email, refreshExpirationInMs);
-        // Store the refresh token in Redis
-        tokenRepository.saveRefreshToken(email, refreshToken, refreshExpirationInMs);
-        return refreshToken;
+        return generateToken(email, new HashMap<>(), refreshExpirationInMs);
     }
 
     public long getJwtExpirationInMs() {
@@ -62,16 +77,25 @@ public class JwtTokenProvider {
         return refreshExpirationInMs;
     }
 
-    private String generateToken(String username, long expiration) {
+    private String generateToken(String username, Map<String, Object> claims, long expiration) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .claims(new HashMap<>())
+                .claims(claims)
+                .id(newJti())
                 .subject(username)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey)
                 .compact();
     }
 
+    // 96 random bits, 16 URL-safe characters
+    private static String newJti() {
+        byte[] bytes = new byte[12];
+        JTI_RANDOM.nextBytes(bytes);
+        return JTI_ENCODER.encodeToString(bytes);
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -86,33 +110,37 @@ public class JwtTokenProvider {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtVerifier.verify(token);
     }
 
     public String validateRefreshToken(String token) {
+        String username = parseRefreshToken(token).getSubject();
+        String storedToken = tokenRepository.getRefreshToken(username);
+
+        if (storedToken == null || !storedToken.equals(token)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+
+        return username;
+    }
+
+    /**
+     * Signature, expiry and revocation checks of a refresh token without reading the stored
+     * token; {@link #rotateRefreshToken} compares against the stored one atomically.
+     */
+    public Claims parseRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtVerifier.verify(token);
 
             if (claims.getExpiration().before(new Date())) {
                 throw new ExpiredJwtException(null, claims, "Refresh token expired");
             }
 
-            String username = claims.getSubject();
-            String storedToken = tokenRepository.getRefreshToken(username);
-
-            if (storedToken == null || !storedToken.equals(token)) {
-                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+            if (revocationNearCache.isRevoked(token, claims)) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token revoked");
             }
 
-            return username;
+            return claims;
 
         } catch (ExpiredJwtException ex) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired");
@@ -128,17 +156,16 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
-        try {
-            // Check if token is blacklisted
-            if (tokenRepository.isBlacklisted(token)) {
-                return false;
-            }
+        return getValidClaims(token) != null;
+    }
 
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+    /**
+     * Claims of a token that verifies and is not revoked, or null otherwise.
+     */
+    public Claims getValidClaims(String token) {
+        try {
+            Claims claims = jwtVerifier.verify(token);
+            return revocationNearCache.isRevoked(token, claims) ? null : claims;
         } catch (SignatureException ex) {
             // Invalid JWT signature
         } catch (MalformedJwtException ex) {
@@ -150,13 +177,56 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             // JWT claims string is empty
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Replaces the presented refresh token with {@code newRefreshToken} and revokes the presented
+     * one in a single Redis round trip. Returns false when the presented token is not the stored
+     * one, e.g. because a concurrent refresh already rotated it.
+     */
+    public boolean rotateRefreshToken(Claims presented, String presentedToken, String newRefreshToken) {
+        return tokenRepository.rotateRefreshToken(
+                presented.getSubject(),
+                presentedToken,
+                newRefreshToken,
+                refreshExpirationInMs,
+                presented.getId(),
+                presented.getExpiration().getTime() - System.currentTimeMillis()
+        );
     }
 
-    public void invalidateToken(String token) {
-        long expiration = getExpirationDateFromToken(token).getTime() - System.currentTimeMillis();
-        if (expiration > 0) {
-            tokenRepository.addToBlacklist(token, expiration);
+    /**
+     * Revokes a single token until it expires. Tokens that no longer verify are already
+     * unusable and are skipped; tokens without a jti go to the legacy blacklist.
+     */
+    public void revokeToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtVerifier.verify(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return;
+        }
+
+        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            return;
         }
+        if (claims.getId() != null) {
+            tokenRepository.revokeJti(claims.getId(), remainingMs);
+        } else {
+            tokenRepository.addToBlacklist(token, remainingMs);
+        }
+    }
+
+    /**
+     * Revokes every access and refresh token issued to the subject so far with one write.
+     */
+    public void revokeAllTokens(String email) {
+        tokenRepository.revokeAllIssuedBefore(
+                email,
+                System.currentTimeMillis() / 1000,
+                Math.max(jwtExpirationInMs, refreshExpirationInMs)
+        );
     }
 }
\ No newline at end of file
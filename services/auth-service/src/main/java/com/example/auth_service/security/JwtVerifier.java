@@ -0,0 +1,114 @@
+package com.example.auth_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies signed JWTs with a key and parser built once, and remembers the claims of
+ * tokens that already passed verification. Entries are keyed by a SHA-256 digest of the
+ * compact token and expire together with the token, so a token seen again skips the
+ * HMAC check and the Base64/JSON decode.
+ */
+public class JwtVerifier {
+
+    private static final MessageDigest SHA_256_PROTOTYPE = newSha256();
+
+    private final JwtParser parser;
+    private final Cache<TokenDigest, Claims> verifiedClaims;
+
+    public JwtVerifier(SecretKey signingKey, long maxCachedTokens) {
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    /**
+     * Returns the verified claims of the token, parsing it only on a cache miss.
+     * Parsing failures propagate as the usual jjwt exceptions and are never cached.
+     */
+    public Claims verify(String token) {
+        TokenDigest digest = TokenDigest.of(token);
+        Claims claims = verifiedClaims.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Verifies the token without consulting or filling the cache.
+     */
+    public Claims verifyUncached(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    public long cachedTokenCount() {
+        verifiedClaims.cleanUp();
+        return verifiedClaims.estimatedSize();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return (MessageDigest) SHA_256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException ex) {
+            return newSha256();
+        }
+    }
+
+    record TokenDigest(long w0, long w1, long w2, long w3) {
+
+        static TokenDigest of(String token) {
+            ByteBuffer digest = ByteBuffer.wrap(sha256().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<TokenDigest, Claims> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
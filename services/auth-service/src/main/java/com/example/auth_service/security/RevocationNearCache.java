@@ -0,0 +1,248 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.repository.TokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process answer to "is this token revoked?" sitting in front of the Redis revocation keys.
+ * <p>
+ * Tokens are revoked either one at a time by jti or all at once through a per-user
+ * "revoked before" watermark. A Bloom filter holds every revoked jti known to Redis and a
+ * map holds every watermark; both are seeded with SCAN and kept current from the
+ * {@link TokenRepository#REVOCATION_CHANNEL} pub/sub channel. A filter miss is a definite
+ * "not revoked" and never leaves the JVM. A filter hit is checked against a small exact set
+ * of recent revocations first and only then against Redis, so the network is paid for
+ * genuine revocations that fell out of the exact set and for false positives. Until the
+ * first seed completes every lookup goes to Redis.
+ * <p>
+ * Bloom filters cannot forget, so the filter is periodically rebuilt from SCAN, which both
+ * drops expired revocations and repairs anything missed while the subscription was down.
+ * <p>
+ * Tokens issued before jti existed are looked up in the legacy per-token blacklist while
+ * {@code auth.revocation.legacy-blacklist.enabled} is on, and rejected once it is off.
+ */
+@Slf4j
+@Component
+public class RevocationNearCache {
+
+    private final TokenRepository tokenRepository;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final boolean legacyBlacklistEnabled;
+    private final Cache<JwtVerifier.TokenDigest, Boolean> recentRevocations;
+    private final Object swapLock = new Object();
+
+    private volatile BloomFilter filter;
+    private volatile Map<String, Long> watermarks = new ConcurrentHashMap<>();
+    private BloomFilter rebuilding;
+    private Map<String, Long> rebuildingWatermarks;
+    private volatile boolean synced;
+
+    private final Counter filterNegatives;
+    private final Counter exactHits;
+    private final Counter redisRevoked;
+    private final Counter falsePositives;
+    private final Counter watermarkRevoked;
+    private final Counter unsyncedLookups;
+    private final Counter legacyLookups;
+
+    public RevocationNearCache(TokenRepository tokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.revocation.near-cache.expected-revocations:100000}") long expectedRevocations,
+                               @Value("${auth.revocation.near-cache.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${auth.revocation.near-cache.exact-size:10000}") long exactSetSize,
+                               @Value("${jwt.refreshExpiration}") long maxTokenLifetimeMs,
+                               @Value("${auth.revocation.legacy-blacklist.enabled:true}") boolean legacyBlacklistEnabled) {
+        this.tokenRepository = tokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.legacyBlacklistEnabled = legacyBlacklistEnabled;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.recentRevocations = Caffeine.newBuilder()
+                .maximumSize(exactSetSize)
+                .expireAfterWrite(Duration.ofMillis(maxTokenLifetimeMs))
+                .build();
+
+        this.filterNegatives = lookupCounter(meterRegistry, "filter_negative");
+        this.exactHits = lookupCounter(meterRegistry, "exact_hit");
+        this.redisRevoked = lookupCounter(meterRegistry, "redis_revoked");
+        this.falsePositives = lookupCounter(meterRegistry, "false_positive");
+        this.watermarkRevoked = lookupCounter(meterRegistry, "watermark_revoked");
+        this.unsyncedLookups = lookupCounter(meterRegistry, "unsynced");
+        this.legacyLookups = lookupCounter(meterRegistry, "legacy");
+
+        Gauge.builder("auth.revocation.false_positive_rate", this, RevocationNearCache::observedFalsePositiveRate)
+                .description("Share of filter hits that Redis reported as not revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.local_hit_rate", this, RevocationNearCache::localHitRate)
+                .description("Share of lookups answered without a Redis round trip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides revocation for a token whose signature has already been verified.
+     */
+    public boolean isRevoked(String token, Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            legacyLookups.increment();
+            return !legacyBlacklistEnabled || tokenRepository.isBlacklisted(token);
+        }
+
+        if (!synced) {
+            unsyncedLookups.increment();
+            return issuedBeforeWatermark(claims, tokenRepository.getRevokedBefore(claims.getSubject()))
+                    || tokenRepository.isJtiRevoked(jti);
+        }
+
+        if (issuedBeforeWatermark(claims, watermarks.get(claims.getSubject()))) {
+            watermarkRevoked.increment();
+            return true;
+        }
+
+        JwtVerifier.TokenDigest digest = JwtVerifier.TokenDigest.of(jti);
+        if (!filter.mightContain(digest.w0(), digest.w1())) {
+            filterNegatives.increment();
+            return false;
+        }
+        if (recentRevocations.getIfPresent(digest) != null) {
+            exactHits.increment();
+            return true;
+        }
+        if (tokenRepository.isJtiRevoked(jti)) {
+            recentRevocations.put(digest, Boolean.TRUE);
+            redisRevoked.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Pub/sub callback for a revocation published by any instance.
+     */
+    public void onRevocationMessage(String message) {
+        if (message.startsWith(TokenRepository.JTI_MESSAGE_PREFIX)) {
+            onJtiRevoked(message.substring(TokenRepository.JTI_MESSAGE_PREFIX.length()));
+        } else if (message.startsWith(TokenRepository.WATERMARK_MESSAGE_PREFIX)) {
+            String body = message.substring(TokenRepository.WATERMARK_MESSAGE_PREFIX.length());
+            int separator = body.indexOf(':');
+            onWatermark(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+        }
+    }
+
+    void onJtiRevoked(String jti) {
+        JwtVerifier.TokenDigest digest = JwtVerifier.TokenDigest.of(jti);
+        recentRevocations.put(digest, Boolean.TRUE);
+        synchronized (swapLock) {
+            filter.put(digest.w0(), digest.w1());
+            if (rebuilding != null) {
+                rebuilding.put(digest.w0(), digest.w1());
+            }
+        }
+    }
+
+    void onWatermark(String subject, long issuedAtEpochSecond) {
+        synchronized (swapLock) {
+            watermarks.merge(subject, issuedAtEpochSecond, Math::max);
+            if (rebuildingWatermarks != null) {
+                rebuildingWatermarks.merge(subject, issuedAtEpochSecond, Math::max);
+            }
+        }
+    }
+
+    // Runs once the pub/sub listener is up, so nothing published during the seed is lost
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuild();
+    }
+
+    @Scheduled(
+            initialDelayString = "${auth.revocation.near-cache.rebuild-interval-ms:600000}",
+            fixedDelayString = "${auth.revocation.near-cache.rebuild-interval-ms:600000}"
+    )
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Re-seeds the filter and watermarks from Redis and swaps them in.
+     * Revocations published while the scan runs are written to both generations.
+     */
+    public void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedRevocations, falsePositiveRate);
+        Map<String, Long> freshWatermarks = new ConcurrentHashMap<>();
+        synchronized (swapLock) {
+            rebuilding = fresh;
+            rebuildingWatermarks = freshWatermarks;
+        }
+        try {
+            long[] count = new long[1];
+            tokenRepository.forEachRevokedJti(jti -> {
+                JwtVerifier.TokenDigest digest = JwtVerifier.TokenDigest.of(jti);
+                fresh.put(digest.w0(), digest.w1());
+                count[0]++;
+            });
+            tokenRepository.forEachRevocationWatermark((subject, issuedAt) ->
+                    freshWatermarks.merge(subject, issuedAt, Math::max));
+            synchronized (swapLock) {
+                filter = fresh;
+                watermarks = freshWatermarks;
+                rebuilding = null;
+                rebuildingWatermarks = null;
+            }
+            synced = true;
+            log.debug("Revocation near-cache rebuilt with {} jtis and {} watermarks", count[0], freshWatermarks.size());
+        } catch (RuntimeException ex) {
+            synchronized (swapLock) {
+                rebuilding = null;
+                rebuildingWatermarks = null;
+            }
+            synced = false;
+            log.warn("Revocation near-cache rebuild failed, falling back to Redis lookups", ex);
+        }
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    double observedFalsePositiveRate() {
+        double hits = exactHits.count() + redisRevoked.count() + falsePositives.count();
+        return hits == 0 ? 0 : falsePositives.count() / hits;
+    }
+
+    double localHitRate() {
+        double local = filterNegatives.count() + exactHits.count() + watermarkRevoked.count();
+        double total = local + redisRevoked.count() + falsePositives.count() + unsyncedLookups.count();
+        return total == 0 ? 0 : local / total;
+    }
+
+    // Watermarks have second precision, so a token issued in the same second as "log out everywhere" is revoked too
+    private static boolean issuedBeforeWatermark(Claims claims, Long revokedBefore) {
+        Date issuedAt = claims.getIssuedAt();
+        return revokedBefore != null && issuedAt != null && issuedAt.getTime() / 1000 <= revokedBefore;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.revocation.lookups")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.entity.User;
+import com.example.auth_service.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-based cache of {@link User} entities keyed by email (the token subject).
+ * Writers evict the entry after changing a user; the TTL bounds how long other instances
+ * can serve the old copy. Credential checks on login read the database, never this cache.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> users;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                     @Value("${auth.user-cache.ttl-ms:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    // Misses are not cached, so a user registered a moment ago is found on the next call
+    public Optional<User> get(String email) {
+        return Optional.ofNullable(users.get(email, key -> userRepository.findByEmail(key).orElse(null)));
+    }
+
+    public void evict(String email) {
+        users.invalidate(email);
+    }
+}
@@ -3,11 +3,12 @@ package com.example.auth_service.service;
 import com.example.auth_service.dto.*;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthService {
-    ApiResponse<AuthResponse> register(RegisterRequest request);
+    CompletableFuture<ApiResponse<AuthResponse>> register(RegisterRequest request);
 
-    ApiResponse<AuthResponse> login(LoginRequest request);
+    CompletableFuture<ApiResponse<AuthResponse>> login(LoginRequest request);
 
     ApiResponse<AuthResponse> refreshToken(RefreshTokenRequest request);
 
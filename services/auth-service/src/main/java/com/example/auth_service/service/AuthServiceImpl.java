@@ -3,18 +3,25 @@ package com.example.auth_service.service;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import com.example.auth_service.dto.*;
+import com.example.auth_service.kafka.UserEventPublisher;
 import com.example.auth_service.repository.TokenRepository;
+import com.example.auth_service.repository.UserIdIndex;
 import com.example.auth_service.service.guard.AuthGuard;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
 import com.example.auth_service.security.JwtTokenProvider;
+import com.example.auth_service.security.PasswordHasher;
+import com.example.auth_service.security.UserCache;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -22,39 +29,64 @@ import lombok.extern.slf4j.Slf4j;
 
 public class AuthServiceImpl implements AuthService {
         private final UserRepository userRepository;
-        private final PasswordEncoder passwordEncoder;
+        private final PasswordHasher passwordHasher;
         private final JwtTokenProvider jwtTokenProvider;
         private final TokenRepository tokenRepository;
         private final AuthGuard authGuard;
+        private final UserCache userCache;
+        private final UserIdIndex userIdIndex;
+        private final UserEventPublisher userEventPublisher;
+        private final AsyncTaskExecutor taskExecutor;
 
         public AuthServiceImpl(
                         UserRepository userRepository,
-                        PasswordEncoder passwordEncoder,
+                        PasswordHasher passwordHasher,
                         JwtTokenProvider jwtTokenProvider,
                         TokenRepository tokenRepository,
-                        AuthGuard authGuard
+                        AuthGuard authGuard,
+                        UserCache userCache,
+                        UserIdIndex userIdIndex,
+                        UserEventPublisher userEventPublisher,
+                        // Named: @EnableScheduling adds a taskScheduler bean, which is an AsyncTaskExecutor too
+                        @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor
         ) {
                 this.userRepository = userRepository;
-                this.passwordEncoder = passwordEncoder;
+                this.passwordHasher = passwordHasher;
                 this.jwtTokenProvider = jwtTokenProvider;
                 this.tokenRepository = tokenRepository;
                 this.authGuard = authGuard;
+                this.userCache = userCache;
+                this.userIdIndex = userIdIndex;
+                this.userEventPublisher = userEventPublisher;
+                this.taskExecutor = taskExecutor;
         }
 
         @Override
-        public ApiResponse<AuthResponse> register(RegisterRequest request) {                        authGuard.checkRegistrationEligibility(request);
+        public CompletableFuture<ApiResponse<AuthResponse>> register(RegisterRequest request) {
+                authGuard.checkRegistrationEligibility(request);
+
+                // The hash completes on a hashing thread; the database, Redis and signing work hops to the task executor
+                return passwordHasher.encode(request.getPassword()).thenApplyAsync(passwordHash -> {
                         User user = User.builder()
                                 .email(request.getEmail())
-                                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                                .passwordHash(passwordHash)
                                 .username(request.getUsername())
                                 .status("online")
                                 .build();
 
                         userRepository.save(user);
+                        userIdIndex.add(user.getId());
+                        userEventPublisher.userRegistered(user.getId());
 
-                        String accessToken = jwtTokenProvider.generateToken(user.getEmail());
+                        String accessToken = jwtTokenProvider.generateToken(user);
                         String refreshToken = jwtTokenProvider.generateRefreshToken(user.getEmail());
 
+                        tokenRepository.saveRefreshToken(
+                                user.getEmail(),
+                                refreshToken,
+                                jwtTokenProvider.getRefreshExpirationInMs()
+                        );
+
                         AuthResponse authResponse =  AuthResponse.builder()
                                 .token(accessToken)
                                 .refreshToken(refreshToken)
@@ -72,16 +104,13 @@ public class AuthServiceImpl implements AuthService {
                                 .reason(HttpStatus.CREATED.name())
                                 .path("api/auth/register")
                                 .message("Registration successful").build();
-
+                }, taskExecutor);
         }
 
         @Override
-        public ApiResponse<AuthResponse> login(LoginRequest request) {
-                        User user = authGuard.checkLoginAndGetUser(request)
-                                .orElseThrow(() -> new ResponseStatusException(
-                                        HttpStatus.UNAUTHORIZED));
-
-                        String accessToken = jwtTokenProvider.generateToken(user.getEmail());
+        public CompletableFuture<ApiResponse<AuthResponse>> login(LoginRequest request) {
+                return authGuard.checkLoginAndGetUser(request).thenApplyAsync(user -> {
+                        String accessToken = jwtTokenProvider.generateToken(user);
                         String refreshToken = jwtTokenProvider.generateRefreshToken(user.getEmail());
 
                         tokenRepository.saveRefreshToken(
@@ -108,31 +137,26 @@ public class AuthServiceImpl implements AuthService {
                                 .status(HttpStatus.OK.value())
                                 .path("api/auth/login")
                                 .message("Login successful").build();
-
+                }, taskExecutor);
         }
 
         @Override
         public ApiResponse<AuthResponse> refreshToken(RefreshTokenRequest request) {
-                        String email = jwtTokenProvider.validateRefreshToken(request.getRefreshToken().toString());
+                        Claims presented = jwtTokenProvider.parseRefreshToken(request.getRefreshToken());
+                        String email = presented.getSubject();
 
-                        User user = userRepository.findByEmail(email)
+                        User user = userCache.get(email)
                                 .orElseThrow(() -> new ResponseStatusException(
                                         HttpStatus.UNAUTHORIZED,
                                         "User not found"));
 
-                        String newAccessToken = jwtTokenProvider.generateToken(user.getEmail());
+                        String newAccessToken = jwtTokenProvider.generateToken(user);
                         String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getEmail());
 
-                        tokenRepository.saveRefreshToken(
-                                email,
-                                newRefreshToken,
-                                jwtTokenProvider.getRefreshExpirationInMs()
-                        );
-
-                        tokenRepository.addToBlacklist(
-                                request.getRefreshToken(),
-                                jwtTokenProvider.getRefreshExpirationInMs()
-                        );
+                        // Compare, swap and revoke in one round trip; a concurrent refresh with the same token loses here
+                        if (!jwtTokenProvider.rotateRefreshToken(presented, request.getRefreshToken(), newRefreshToken)) {
+                                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+                        }
 
                         AuthResponse authResponse =  AuthResponse.builder()
                                 .token(newAccessToken)
@@ -163,21 +187,17 @@ public class AuthServiceImpl implements AuthService {
                                 HttpStatus.NOT_FOUND,
                                 "User not found"));
 
-                tokenRepository.addToBlacklist(
-                        request.getToken(),
-                        jwtTokenProvider.getJwtExpirationInMs()
-                );
-
-                if (request.getRefreshToken() != null && !request.getRefreshToken().isEmpty()) {
-                        tokenRepository.addToBlacklist(
-                                request.getRefreshToken(),
-                                jwtTokenProvider.getRefreshExpirationInMs()
-                        );
+                if (request.isAllDevices()) {
+                        jwtTokenProvider.revokeAllTokens(email);
+                } else {
+                        jwtTokenProvider.revokeToken(request.getToken());
+                        jwtTokenProvider.revokeToken(request.getRefreshToken());
                 }
 
                 // Update user status if needed
                 user.setStatus("offline");
                 userRepository.save(user);
+                userCache.evict(email);
 
                 return ApiResponse.<Void>builder()
                         .status(HttpStatus.OK.value())
@@ -190,7 +210,7 @@ public class AuthServiceImpl implements AuthService {
 
         @Override
         public ApiResponse<Boolean> checkUserExistsById(UUID userId) {
-            boolean exists = userRepository.existsById(userId);
+            boolean exists = userIdIndex.exists(userId);
             return ApiResponse.<Boolean>builder()
                     .data(exists)
                     .timestamp(LocalDateTime.now())
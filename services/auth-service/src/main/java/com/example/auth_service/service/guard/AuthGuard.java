@@ -5,9 +5,9 @@ import com.example.auth_service.dto.RegisterRequest;
 import com.example.auth_service.entity.User;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthGuard {
     void checkRegistrationEligibility(RegisterRequest request) throws ResponseStatusException;
-    Optional<User> checkLoginAndGetUser(LoginRequest request) throws ResponseStatusException;
+    CompletableFuture<User> checkLoginAndGetUser(LoginRequest request) throws ResponseStatusException;
 }
\ No newline at end of file
@@ -4,23 +4,36 @@ import com.example.auth_service.dto.LoginRequest;
 import com.example.auth_service.dto.RegisterRequest;
 import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.auth_service.security.PasswordHasher;
+import com.example.auth_service.security.UserCache;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AuthGuardImpl implements AuthGuard {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserCache userCache;
+    private final AsyncTaskExecutor taskExecutor;
+
+    // Named: @EnableScheduling adds a taskScheduler bean, which is an AsyncTaskExecutor too
+    public AuthGuardImpl(UserRepository userRepository,
+                         PasswordHasher passwordHasher,
+                         UserCache userCache,
+                         @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.userCache = userCache;
+        this.taskExecutor = taskExecutor;
+    }
 
     @Override
     public void checkRegistrationEligibility(RegisterRequest request) {
@@ -30,20 +43,40 @@ public class AuthGuardImpl implements AuthGuard {
 
     }
     @Override
-    public Optional<User> checkLoginAndGetUser(LoginRequest request) {
+    public CompletableFuture<User> checkLoginAndGetUser(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.UNAUTHORIZED,
                         "Invalid email or password"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            throw new ResponseStatusException(
-                    HttpStatus.UNAUTHORIZED,
-                    "Invalid email or password");
-        }
-
-        return Optional.of(user);  // Wrap the User in an Optional before returning
-
+        return passwordHasher.matches(request.getPassword(), user.getPasswordHash())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new ResponseStatusException(
+                                HttpStatus.UNAUTHORIZED,
+                                "Invalid email or password");
+                    }
+                    if (passwordHasher.needsRehash(user.getPasswordHash())) {
+                        rehash(user, request.getPassword());
+                    }
+                    return user;
+                });
+    }
 
+    // Fire-and-forget: the login response never waits for the new hash, and a failure just retries on the next login.
+    // The conditional update runs on the task executor so it never holds a hashing thread
+    private void rehash(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        passwordHasher.encode(rawPassword)
+                .thenAcceptAsync(newHash -> {
+                    if (userRepository.replacePasswordHash(user.getId(), oldHash, newHash) == 1) {
+                        userCache.evict(user.getEmail());
+                        log.debug("Rehashed password for user {} to current policy", user.getId());
+                    }
+                }, taskExecutor)
+                .exceptionally(ex -> {
+                    log.warn("Password rehash for user {} failed: {}", user.getId(), ex.getMessage());
+                    return null;
+                });
     }
 }
\ No newline at end of file
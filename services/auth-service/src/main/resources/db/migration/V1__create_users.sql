@@ -0,0 +1,14 @@
+-- Schema as previously created by hibernate.ddl-auto=update; existing databases are baselined at this version
+CREATE TABLE IF NOT EXISTS users (
+    id            VARCHAR(255) NOT NULL PRIMARY KEY,
+    username      VARCHAR(50)  NOT NULL,
+    email         VARCHAR(100) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    avatar_url    VARCHAR(255),
+    status        VARCHAR(10),
+    created_at    TIMESTAMP(6),
+    last_active   TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_users_username ON users (username);
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
@@ -0,0 +1,9 @@
+-- Store ids as 16-byte uuid instead of 36-char text; the primary key index is rebuilt with the column
+ALTER TABLE users ALTER COLUMN id TYPE uuid USING id::uuid;
+
+-- Email lookups (login, registration, refresh) are served by the unique constraint's index,
+-- so the separate non-unique one only doubled the write cost
+DROP INDEX IF EXISTS idx_users_email;
+
+-- Refresh planner statistics for the rewritten table and indexes
+ANALYZE users;
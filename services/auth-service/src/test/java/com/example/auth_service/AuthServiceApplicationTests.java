@@ -4,8 +4,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
+// Loads the whole context against real Postgres and Redis, so bean wiring problems fail here and not at deploy
 @Import(TestcontainersConfiguration.class)
-@SpringBootTest
+@SpringBootTest(properties = {
+		"spring.datasource.driver-class-name=org.postgresql.Driver",
+		"spring.autoconfigure.exclude=",
+		"jwt.secret=context-test-secret-that-is-at-least-32-bytes-long",
+		"jwt.expiration=900000",
+		"jwt.refreshExpiration=604800000",
+		"auth.password-hashing.cost=4",
+		// No broker here: listeners just retry, and topic creation is skipped rather than timing out
+		"spring.kafka.admin.auto-create=false"
+})
 class AuthServiceApplicationTests {
 
 	@Test
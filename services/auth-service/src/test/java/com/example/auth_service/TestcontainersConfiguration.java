@@ -1,8 +1,35 @@
 package com.example.auth_service;
 
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
 
 @TestConfiguration(proxyBeanMethods = false)
 class TestcontainersConfiguration {
 
+	@Bean
+	@ServiceConnection
+	PostgreSQLContainer<?> postgresContainer() {
+		return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+	}
+
+	@Bean
+	GenericContainer<?> redisContainer() {
+		return new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+	}
+
+	// RedisConfig reads spring.redis.* itself rather than Boot's connection details
+	@Bean
+	DynamicPropertyRegistrar redisProperties(GenericContainer<?> redisContainer) {
+		return registry -> {
+			registry.add("spring.redis.host", redisContainer::getHost);
+			registry.add("spring.redis.port", () -> redisContainer.getMappedPort(6379));
+			registry.add("spring.redis.password", () -> "");
+		};
+	}
+
 }
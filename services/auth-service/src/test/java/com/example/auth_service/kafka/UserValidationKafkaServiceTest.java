@@ -0,0 +1,137 @@
+package com.example.auth_service.kafka;
+
+import com.example.auth_service.repository.UserIdIndex;
+import com.example.common.constants.KafkaTopics;
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserValidationKafkaServiceTest {
+
+    @Mock
+    private UserIdIndex userIdIndex;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @InjectMocks
+    private UserValidationKafkaService service;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, Object>> sent;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID ghost = UUID.randomUUID();
+
+    @Test
+    void validateUsers_WholePoll_OneDeduplicatedLookupAndOneFlush() {
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
+        when(userIdIndex.findExisting(anySet())).thenReturn(Set.of(alice, bob));
+
+        service.validateUsers(List.of(
+                record(0, "c1", alice, bob),
+                record(1, "c2", bob, alice),
+                record(2, "c3", alice, ghost)
+        ));
+
+        verify(userIdIndex, times(1)).findExisting(Set.of(alice, bob, ghost));
+
+        Map<String, UserValidationResponse> replies = sentReplies(3);
+        assertTrue(replies.get("c1").isValid());
+        assertTrue(replies.get("c2").isValid());
+        assertFalse(replies.get("c3").isValid());
+        assertEquals(List.of(ghost), replies.get("c3").missingUserIds());
+        assertTrue(replies.get("c1").missingUserIds().isEmpty());
+        verify(kafkaTemplate, times(1)).flush();
+    }
+
+    @Test
+    void validateUsers_DuplicateIdInOneRequest_StillValid() {
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
+        when(userIdIndex.findExisting(anySet())).thenReturn(Set.of(alice));
+
+        service.validateUsers(List.of(record(0, "c1", alice, alice)));
+
+        assertTrue(sentReplies(1).get("c1").isValid());
+    }
+
+    @Test
+    void validateUsers_DatabaseFails_EveryRequestGetsErrorReply() {
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
+        when(userIdIndex.findExisting(anySet()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        service.validateUsers(List.of(record(0, "c1", alice), record(1, "c2", bob)));
+
+        Map<String, UserValidationResponse> replies = sentReplies(2);
+        assertFalse(replies.get("c1").isValid());
+        assertTrue(replies.get("c2").message().startsWith("Error:"));
+        verify(kafkaTemplate).flush();
+    }
+
+    @Test
+    void validateUsers_ReplyPartitionHeader_ReplyRoutedToRequestingInstance() {
+        when(kafkaTemplate.send(anyRecord())).thenReturn(new CompletableFuture<>());
+        when(userIdIndex.findExisting(anySet())).thenReturn(Set.of(alice));
+        ConsumerRecord<String, UserValidationRequest> routed = record(0, "c1", alice);
+        routed.headers().add(KafkaHeaders.REPLY_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(5).array());
+
+        service.validateUsers(List.of(routed, record(1, "c2", alice)));
+
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        assertEquals(5, sent.getAllValues().get(0).partition());
+        assertNull(sent.getAllValues().get(1).partition());
+    }
+
+    private static ConsumerRecord<String, UserValidationRequest> record(long offset, String correlationId, UUID... userIds) {
+        ConsumerRecord<String, UserValidationRequest> record = new ConsumerRecord<>(
+                KafkaTopics.USER_EXISTENCE_REQUEST, 0, offset, correlationId,
+                new UserValidationRequest(correlationId, List.of(userIds)));
+        record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static ProducerRecord<String, Object> anyRecord() {
+        return any();
+    }
+
+    private Map<String, UserValidationResponse> sentReplies(int expected) {
+        verify(kafkaTemplate, times(expected)).send(sent.capture());
+        for (ProducerRecord<String, Object> reply : sent.getAllValues()) {
+            UserValidationResponse response = (UserValidationResponse) reply.value();
+            assertEquals(KafkaTopics.USER_EXISTENCE_RESPONSE, reply.topic());
+            assertEquals(response.correlationId(), new String(
+                    reply.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value(), StandardCharsets.UTF_8));
+        }
+        return sent.getAllValues().stream()
+                .map(reply -> (UserValidationResponse) reply.value())
+                .collect(Collectors.toMap(UserValidationResponse::correlationId, response -> response));
+    }
+}
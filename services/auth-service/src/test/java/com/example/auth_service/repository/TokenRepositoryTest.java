@@ -5,8 +5,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
@@ -47,6 +53,30 @@ class TokenRepositoryTest {
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         tokenRepository.addToBlacklist("token123", 1000L);
         verify(valueOperations).set("blacklist:token123", "true", 1000L, java.util.concurrent.TimeUnit.MILLISECONDS);
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void testRevokeJti() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        tokenRepository.revokeJti("abc", 1000L);
+        verify(valueOperations).set("revoked_jti:abc", 1, 1000L, java.util.concurrent.TimeUnit.MILLISECONDS);
+        verify(redisTemplate).convertAndSend(TokenRepository.REVOCATION_CHANNEL, "jti:abc");
+    }
+
+    @Test
+    void testRevokeAllIssuedBefore() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        tokenRepository.revokeAllIssuedBefore("user@example.com", 1700000000L, 1000L);
+        verify(valueOperations).set("revoked_before:user@example.com", 1700000000L, 1000L, java.util.concurrent.TimeUnit.MILLISECONDS);
+        verify(redisTemplate).convertAndSend(TokenRepository.REVOCATION_CHANNEL, "before:1700000000:user@example.com");
+    }
+
+    @Test
+    void testGetRevokedBefore() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("revoked_before:user@example.com")).thenReturn(1700000000);
+        assertEquals(1700000000L, tokenRepository.getRevokedBefore("user@example.com"));
     }
 
     @Test
@@ -54,4 +84,27 @@ class TokenRepositoryTest {
         when(redisTemplate.hasKey("blacklist:token123")).thenReturn(true);
         assertTrue(tokenRepository.isBlacklisted("token123"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRotateRefreshToken() {
+        doReturn(new GenericJackson2JsonRedisSerializer()).when(redisTemplate).getValueSerializer();
+        doReturn(1L).when(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<RedisSerializer<?>>any(),
+                ArgumentMatchers.<RedisSerializer<Long>>isNull(),
+                eq(List.of("refresh_token:user@example.com", "revoked_jti:abc")),
+                eq("\"old\""), eq("\"new\""), eq("1000"), eq("500"), eq("1"), eq("\"jti:abc\""));
+
+        assertTrue(tokenRepository.rotateRefreshToken("user@example.com", "old", "new", 1000L, "abc", 500L));
+    }
+
+    @Test
+    void testRotateRefreshToken_StoredTokenChanged() {
+        doReturn(new GenericJackson2JsonRedisSerializer()).when(redisTemplate).getValueSerializer();
+        doReturn(0L).when(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(), ArgumentMatchers.<RedisSerializer<?>>any(),
+                ArgumentMatchers.<RedisSerializer<Long>>isNull(), anyList(), any(), any(), any(), any(), any(), any());
+
+        assertFalse(tokenRepository.rotateRefreshToken("user@example.com", "old", "new", 1000L, null, 500L));
+    }
+}
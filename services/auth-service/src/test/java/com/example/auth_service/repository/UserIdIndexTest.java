@@ -0,0 +1,108 @@
+package com.example.auth_service.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID known = UUID.randomUUID();
+    private final UUID unknown = UUID.randomUUID();
+
+    @Test
+    void exists_BeforeLoad_FallsBackToDatabase() {
+        UserIdIndex index = newIndex(false);
+        when(userRepository.existsById(known)).thenReturn(true);
+
+        assertTrue(index.exists(known));
+        assertTrue(index.exists(known));
+
+        verify(userRepository, times(1)).existsById(known);
+    }
+
+    @Test
+    void exists_AfterLoad_AnswersFromMemory() throws Exception {
+        UserIdIndex index = newIndex(false);
+        load(index, known);
+
+        assertTrue(index.isLoaded());
+        assertTrue(index.exists(known));
+        assertFalse(index.exists(unknown));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void exists_MissWithConfirmation_AsksDatabase() throws Exception {
+        UserIdIndex index = newIndex(true);
+        load(index);
+        when(userRepository.existsById(unknown)).thenReturn(false);
+
+        assertFalse(index.exists(unknown));
+        verify(userRepository).existsById(unknown);
+    }
+
+    @Test
+    void findExisting_OnlyUnknownIdsReachTheDatabase() throws Exception {
+        UserIdIndex index = newIndex(true);
+        load(index, known);
+        UUID registeredElsewhere = UUID.randomUUID();
+        when(userRepository.findAllExistingUserIds(List.of(registeredElsewhere, unknown)))
+                .thenReturn(List.of(registeredElsewhere));
+
+        Set<UUID> existing = index.findExisting(List.of(known, registeredElsewhere, unknown));
+
+        assertEquals(Set.of(known, registeredElsewhere), existing);
+        assertTrue(index.exists(registeredElsewhere));
+        verify(userRepository, never()).existsById(any(UUID.class));
+    }
+
+    @Test
+    void add_RegisteredUserIsKnownWithoutDatabase() throws Exception {
+        UserIdIndex index = newIndex(false);
+        load(index);
+
+        index.add(known);
+
+        assertTrue(index.exists(known));
+        verifyNoInteractions(userRepository);
+    }
+
+    private UserIdIndex newIndex(boolean confirmMisses) {
+        return new UserIdIndex(userRepository, jdbcTemplate, new SimpleMeterRegistry(), 16, confirmMisses);
+    }
+
+    // Feeds the given rows to the index's streaming load
+    private void load(UserIdIndex index, UUID... rows) throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (UUID row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getObject(1, UUID.class)).thenReturn(row);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        index.load();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.auth_service.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidSetTest {
+
+    @Test
+    void add_GrowsPastExpectedSize_KeepsEveryId() {
+        UuidSet set = new UuidSet(4);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            assertTrue(set.add(id));
+        }
+
+        assertEquals(10_000, set.size());
+        ids.forEach(id -> assertTrue(set.contains(id)));
+        assertFalse(set.contains(UUID.randomUUID()));
+    }
+
+    @Test
+    void add_Duplicate_ReturnsFalse() {
+        UuidSet set = new UuidSet(16);
+        UUID id = UUID.randomUUID();
+
+        assertTrue(set.add(id));
+        assertFalse(set.add(id));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void nilUuid_DoesNotCollideWithEmptySlots() {
+        UuidSet set = new UuidSet(16);
+        UUID nil = new UUID(0, 0);
+
+        assertFalse(set.contains(nil));
+        assertTrue(set.add(nil));
+        assertTrue(set.contains(nil));
+        assertFalse(set.contains(new UUID(0, 1)));
+    }
+
+    @Test
+    void sequentialIds_StillSpreadAcrossTable() {
+        UuidSet set = new UuidSet(16);
+        for (long i = 1; i <= 5_000; i++) {
+            set.add(new UUID(0x0190_0000_0000_7000L, i));
+        }
+
+        for (long i = 1; i <= 5_000; i++) {
+            assertTrue(set.contains(new UUID(0x0190_0000_0000_7000L, i)));
+        }
+        assertFalse(set.contains(new UUID(0x0190_0000_0000_7000L, 5_001)));
+    }
+
+    @Test
+    void contains_WhileAnotherThreadAddsAndResizes_NeverLosesIds() throws Exception {
+        UuidSet set = new UuidSet(16);
+        List<UUID> seeded = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.randomUUID();
+            seeded.add(id);
+            set.add(id);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    set.add(UUID.randomUUID());
+                }
+            });
+            Future<Boolean> reader = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    for (UUID id : seeded) {
+                        if (!set.contains(id)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            });
+
+            writer.get();
+            assertTrue(reader.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
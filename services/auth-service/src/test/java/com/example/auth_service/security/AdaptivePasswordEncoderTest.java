@@ -0,0 +1,52 @@
+package com.example.auth_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePasswordEncoderTest {
+
+    @Test
+    void encode_StoresAlgorithmAndCost() {
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(5);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("other", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void matches_LegacyUnprefixedHash_AndFlagsItForRehash() {
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(5);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void upgradeEncoding_CostOutsidePolicy_FlagsRehash() {
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(6);
+
+        assertTrue(encoder.upgradeEncoding(new AdaptivePasswordEncoder(5).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new AdaptivePasswordEncoder(7).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new AdaptivePasswordEncoder(8).encode("secret")));
+        assertTrue(encoder.upgradeEncoding("{noop}secret"));
+    }
+
+    @Test
+    void calibrate_StaysWithinCostBounds() {
+        assertEquals(4, AdaptivePasswordEncoder.calibrate(0, 4, 6).getCost());
+        assertEquals(6, AdaptivePasswordEncoder.calibrate(60_000, 4, 6).getCost());
+    }
+
+    @Test
+    void bcryptCost_ParsesHeader() {
+        assertEquals(12, AdaptivePasswordEncoder.bcryptCost("$2a$12$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, AdaptivePasswordEncoder.bcryptCost("plain"));
+    }
+}
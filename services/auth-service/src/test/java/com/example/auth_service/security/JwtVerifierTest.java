@@ -0,0 +1,76 @@
+package com.example.auth_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final SecretKey KEY =
+            Keys.hmacShaKeyFor("test-secret-test-secret-test-secret-42".getBytes(StandardCharsets.UTF_8));
+
+    private JwtVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new JwtVerifier(KEY, 100);
+    }
+
+    @Test
+    void verify_ValidToken_ReturnsClaimsAndCachesThem() {
+        String token = token(KEY, 60_000);
+
+        Claims first = verifier.verify(token);
+        Claims second = verifier.verify(token);
+
+        assertEquals("user@example.com", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1, verifier.cachedTokenCount());
+    }
+
+    @Test
+    void verify_WrongSignature_ThrowsAndIsNotCached() {
+        SecretKey otherKey = Keys.hmacShaKeyFor("other-secret-other-secret-other-secret".getBytes(StandardCharsets.UTF_8));
+        String token = token(otherKey, 60_000);
+
+        assertThrows(SignatureException.class, () -> verifier.verify(token));
+        assertThrows(SignatureException.class, () -> verifier.verify(token));
+        assertEquals(0, verifier.cachedTokenCount());
+    }
+
+    @Test
+    void verify_ExpiredToken_Throws() {
+        String token = token(KEY, -1_000);
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_CachedTokenPastExpiry_IsVerifiedAgain() throws InterruptedException {
+        String token = token(KEY, 1_200);
+        verifier.verify(token);
+
+        Thread.sleep(1_300);
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    private static String token(SecretKey key, long ttlMs) {
+        return Jwts.builder()
+                .subject("user@example.com")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + ttlMs))
+                .signWith(key)
+                .compact();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.auth_service.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private MeterRegistry meterRegistry;
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHasher = new PasswordHasher(new BlockingEncoder(), meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_RunOnHashingPool() {
+        release.countDown();
+
+        String hash = passwordHasher.encode("secret").join();
+
+        assertEquals("hashed:secret", hash);
+        assertTrue(passwordHasher.matches("secret", hash).join());
+        assertFalse(passwordHasher.matches("other", hash).join());
+        assertEquals(1, meterRegistry.get("auth.password.hash.latency").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hash.latency").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void encode_QueueFull_FailsFastWithServiceUnavailable() throws Exception {
+        CompletableFuture<String> running = passwordHasher.encode("first");
+        CompletableFuture<String> queued = passwordHasher.encode("second");
+        waitForQueueDepth(1);
+
+        CompletableFuture<String> rejected = passwordHasher.encode("third");
+
+        CompletionException completion = assertThrows(CompletionException.class, rejected::join);
+        ResponseStatusException exception = assertInstanceOf(ResponseStatusException.class, completion.getCause());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(1, meterRegistry.get("auth.password.hash.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("auth.password.hash.active").gauge().value());
+
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.queue.depth").gauge().value() < depth
+                || meterRegistry.get("auth.password.hash.active").gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "hashing pool never filled up");
+            Thread.sleep(5);
+        }
+    }
+
+    // Stands in for BCrypt: holds the hashing thread until the test releases it
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            awaitRelease();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            awaitRelease();
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        private void awaitRelease() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.repository.TokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationNearCacheTest {
+
+    private static final String SUBJECT = "user@example.com";
+
+    private InMemoryRedis redis;
+    private MeterRegistry meterRegistry;
+    private RevocationNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedis();
+        meterRegistry = new SimpleMeterRegistry();
+        nearCache = newNearCache(1_000, 0.01, true);
+    }
+
+    @Test
+    void isRevoked_BeforeSeed_AsksRedis() {
+        redis.revokeJti("revoked", 1000L);
+
+        assertTrue(nearCache.isRevoked("t1", claims("revoked", 0)));
+        assertFalse(nearCache.isRevoked("t2", claims("fresh", 0)));
+        assertEquals(2, lookups("unsynced"));
+        assertTrue(redis.lookups >= 2);
+    }
+
+    @Test
+    void isRevoked_UnknownJtiAfterSeed_AnsweredLocally() {
+        nearCache.rebuild();
+
+        assertFalse(nearCache.isRevoked("t", claims("fresh", 0)));
+        assertEquals(0, redis.lookups);
+        assertEquals(1, lookups("filter_negative"));
+    }
+
+    @Test
+    void isRevoked_RevocationPublishedAfterSeed_AnsweredFromExactSet() {
+        nearCache.rebuild();
+        redis.revokeJti("revoked", 1000L);
+
+        assertTrue(nearCache.isRevoked("t", claims("revoked", 0)));
+        assertEquals(0, redis.lookups);
+        assertEquals(1, lookups("exact_hit"));
+    }
+
+    @Test
+    void isRevoked_RevocationOnlyKnownFromSeed_ConfirmedByRedisOnce() {
+        redis.jtis.add("revoked-earlier");
+        nearCache.rebuild();
+
+        assertTrue(nearCache.isRevoked("t", claims("revoked-earlier", 0)));
+        assertTrue(nearCache.isRevoked("t", claims("revoked-earlier", 0)));
+        assertEquals(1, redis.lookups);
+        assertEquals(1, lookups("redis_revoked"));
+        assertEquals(1, lookups("exact_hit"));
+    }
+
+    @Test
+    void isRevoked_TokenIssuedBeforeWatermark_Revoked() {
+        nearCache.rebuild();
+        long now = System.currentTimeMillis() / 1000;
+        redis.revokeAllIssuedBefore(SUBJECT, now, 1000L);
+
+        assertTrue(nearCache.isRevoked("old", claims("a", -5)));
+        assertTrue(nearCache.isRevoked("same-second", claims("b", 0)));
+        assertFalse(nearCache.isRevoked("new", claims("c", 5)));
+        assertEquals(0, redis.lookups);
+        assertEquals(2, lookups("watermark_revoked"));
+    }
+
+    @Test
+    void rebuild_LoadsWatermarksFromRedis() {
+        redis.watermarks.put(SUBJECT, System.currentTimeMillis() / 1000);
+        nearCache.rebuild();
+
+        assertTrue(nearCache.isRevoked("old", claims("a", -5)));
+        assertEquals(0, redis.lookups);
+    }
+
+    @Test
+    void rebuild_DropsRevocationsThatExpiredInRedis() {
+        redis.jtis.add("expiring");
+        nearCache.rebuild();
+        redis.jtis.remove("expiring");
+
+        nearCache.rebuild();
+
+        assertFalse(nearCache.isRevoked("t", claims("expiring", 0)));
+        assertEquals(0, redis.lookups);
+    }
+
+    @Test
+    void rebuild_RedisUnavailable_FallsBackToRedisLookups() {
+        nearCache.rebuild();
+        redis.failScans = true;
+
+        nearCache.rebuild();
+
+        assertFalse(nearCache.isSynced());
+        assertFalse(nearCache.isRevoked("t", claims("fresh", 0)));
+        assertEquals(1, lookups("unsynced"));
+    }
+
+    @Test
+    void isRevoked_LegacyTokenWithoutJti_UsesBlacklistOnlyInMigrationMode() {
+        redis.legacyBlacklist.add("legacy-revoked");
+        nearCache.rebuild();
+        RevocationNearCache strictCache = newNearCache(1_000, 0.01, false);
+        strictCache.rebuild();
+
+        assertTrue(nearCache.isRevoked("legacy-revoked", claims(null, 0)));
+        assertFalse(nearCache.isRevoked("legacy-valid", claims(null, 0)));
+        assertTrue(strictCache.isRevoked("legacy-valid", claims(null, 0)));
+    }
+
+    @Test
+    void isRevoked_SaturatedFilter_ReportsFalsePositivesWithoutWrongAnswers() {
+        RevocationNearCache tinyCache = newNearCache(1, 0.5, true);
+        for (int i = 0; i < 50; i++) {
+            redis.jtis.add("revoked-" + i);
+        }
+        tinyCache.rebuild();
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(tinyCache.isRevoked("t", claims("fresh-" + i, 0)));
+        }
+
+        assertTrue(redis.lookups > 0);
+        assertEquals(1.0, tinyCache.observedFalsePositiveRate());
+    }
+
+    private RevocationNearCache newNearCache(long expected, double fpp, boolean legacyEnabled) {
+        RevocationNearCache cache = new RevocationNearCache(
+                redis, legacyEnabled ? meterRegistry : new SimpleMeterRegistry(), expected, fpp, 100, 60_000, legacyEnabled);
+        redis.subscribers.add(cache::onRevocationMessage);
+        return cache;
+    }
+
+    private static Claims claims(String jti, long issuedOffsetSeconds) {
+        return Jwts.claims()
+                .id(jti)
+                .subject(SUBJECT)
+                .issuedAt(new Date(System.currentTimeMillis() + issuedOffsetSeconds * 1000))
+                .build();
+    }
+
+    private double lookups(String outcome) {
+        return meterRegistry.get("auth.revocation.lookups").tag("outcome", outcome).counter().count();
+    }
+
+    /**
+     * Redis stand-in: revocation keys live in collections and pub/sub is a synchronous callback.
+     */
+    private static class InMemoryRedis extends TokenRepository {
+        final Set<String> jtis = ConcurrentHashMap.newKeySet();
+        final Set<String> legacyBlacklist = ConcurrentHashMap.newKeySet();
+        final Map<String, Long> watermarks = new ConcurrentHashMap<>();
+        final List<Consumer<String>> subscribers = new ArrayList<>();
+        int lookups;
+        boolean failScans;
+
+        InMemoryRedis() {
+            super(null);
+        }
+
+        @Override
+        public void revokeJti(String jti, long expirationMs) {
+            jtis.add(jti);
+            publish(JTI_MESSAGE_PREFIX + jti);
+        }
+
+        @Override
+        public boolean isJtiRevoked(String jti) {
+            lookups++;
+            return jtis.contains(jti);
+        }
+
+        @Override
+        public void revokeAllIssuedBefore(String subject, long issuedAtEpochSecond, long expirationMs) {
+            watermarks.put(subject, issuedAtEpochSecond);
+            publish(WATERMARK_MESSAGE_PREFIX + issuedAtEpochSecond + ":" + subject);
+        }
+
+        @Override
+        public Long getRevokedBefore(String subject) {
+            lookups++;
+            return watermarks.get(subject);
+        }
+
+        @Override
+        public boolean isBlacklisted(String token) {
+            lookups++;
+            return legacyBlacklist.contains(token);
+        }
+
+        @Override
+        public void forEachRevokedJti(Consumer<String> action) {
+            if (failScans) {
+                throw new IllegalStateException("connection refused");
+            }
+            jtis.forEach(action);
+        }
+
+        @Override
+        public void forEachRevocationWatermark(BiConsumer<String, Long> action) {
+            watermarks.forEach(action);
+        }
+
+        private void publish(String message) {
+            subscribers.forEach(subscriber -> subscriber.accept(message));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.entity.User;
+import com.example.auth_service.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(userRepository, new SimpleMeterRegistry(), 100, 60_000);
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("user@example.com")
+                .username("testuser")
+                .build();
+    }
+
+    @Test
+    void get_RepeatedLookups_HitDatabaseOnce() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        assertSame(user, userCache.get(user.getEmail()).orElseThrow());
+        assertSame(user, userCache.get(user.getEmail()).orElseThrow());
+
+        verify(userRepository, times(1)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    void get_UnknownUser_IsNotCached() {
+        when(userRepository.findByEmail(user.getEmail()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user));
+
+        assertTrue(userCache.get(user.getEmail()).isEmpty());
+        assertTrue(userCache.get(user.getEmail()).isPresent());
+    }
+
+    @Test
+    void evict_NextLookupReloads() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        userCache.get(user.getEmail());
+
+        userCache.evict(user.getEmail());
+        userCache.get(user.getEmail());
+
+        verify(userRepository, times(2)).findByEmail(user.getEmail());
+    }
+}
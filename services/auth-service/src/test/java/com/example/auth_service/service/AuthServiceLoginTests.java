@@ -13,16 +13,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,9 +38,6 @@ class AuthServiceLoginTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private PasswordEncoder passwordEncoder;
-
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
@@ -47,6 +47,9 @@ class AuthServiceLoginTest {
     @Mock
     private AuthGuard authGuard;
 
+    @Spy
+    private AsyncTaskExecutor taskExecutor = new TaskExecutorAdapter(Runnable::run);
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -68,14 +71,14 @@ class AuthServiceLoginTest {
     void login_Successful() {
         // Arrange
         when(authGuard.checkLoginAndGetUser(validLoginRequest))
-                .thenReturn(Optional.of(validUser));
-        when(jwtTokenProvider.generateToken(validUser.getEmail())).thenReturn("accessToken");
+                .thenReturn(CompletableFuture.completedFuture(validUser));
+        when(jwtTokenProvider.generateToken(validUser)).thenReturn("accessToken");
         when(jwtTokenProvider.generateRefreshToken(validUser.getEmail())).thenReturn("refreshToken");
         when(jwtTokenProvider.getJwtExpirationInMs()).thenReturn(3600000L);
         when(jwtTokenProvider.getRefreshExpirationInMs()).thenReturn(86400000L);
 
         // Act
-        ApiResponse<AuthResponse> apiResponse = authService.login(validLoginRequest);
+        ApiResponse<AuthResponse> apiResponse = authService.login(validLoginRequest).join();
         AuthResponse response = apiResponse.getData();
 
         // Assert
@@ -97,6 +100,7 @@ class AuthServiceLoginTest {
                 "refreshToken",
                 86400000L
         );
+        verify(taskExecutor).execute(any());
     }
 
     @Test
@@ -122,11 +126,13 @@ class AuthServiceLoginTest {
         // Arrange
         LoginRequest invalidPasswordRequest = new LoginRequest("user@example.com", "wrongPassword");
         when(authGuard.checkLoginAndGetUser(invalidPasswordRequest))
-                .thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password"));
+                .thenReturn(CompletableFuture.failedFuture(
+                        new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password")));
 
         // Act & Assert
-        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                () -> authService.login(invalidPasswordRequest));
+        CompletionException completion = assertThrows(CompletionException.class,
+                () -> authService.login(invalidPasswordRequest).join());
+        ResponseStatusException exception = assertInstanceOf(ResponseStatusException.class, completion.getCause());
 
         assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
         assertEquals("401 UNAUTHORIZED \"Invalid email or password\"", exception.getMessage());
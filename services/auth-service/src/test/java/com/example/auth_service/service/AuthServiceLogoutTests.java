@@ -6,6 +6,7 @@ import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
 import com.example.auth_service.repository.TokenRepository;
 import com.example.auth_service.security.JwtTokenProvider;
+import com.example.auth_service.security.UserCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +37,9 @@ class AuthServiceLogoutTest {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -46,7 +50,8 @@ class AuthServiceLogoutTest {
     void setUp() {
         validLogoutRequest = new LogoutRequest(
                 "accessToken",
-                "refreshToken"
+                "refreshToken",
+                false
         );
 
         validUser = User.builder()
@@ -63,8 +68,6 @@ class AuthServiceLogoutTest {
                 .thenReturn(validUser.getEmail());
         when(userRepository.findByEmail(validUser.getEmail()))
                 .thenReturn(Optional.of(validUser));
-        when(jwtTokenProvider.getJwtExpirationInMs()).thenReturn(3600000L);
-        when(jwtTokenProvider.getRefreshExpirationInMs()).thenReturn(86400000L);
 
         // Act
         ApiResponse<Void> response = authService.logout(validLogoutRequest);
@@ -74,16 +77,30 @@ class AuthServiceLogoutTest {
         assertEquals(HttpStatus.OK.value(), response.getStatus());
         assertEquals("Logout successful", response.getMessage());
         verify(userRepository).save(validUser);
+        verify(userCache).evict(validUser.getEmail());
         assertEquals("offline", validUser.getStatus());
 
-        verify(tokenRepository).addToBlacklist(
-                validLogoutRequest.getToken(),
-                3600000L
-        );
-        verify(tokenRepository).addToBlacklist(
-                validLogoutRequest.getRefreshToken(),
-                86400000L
-        );
+        verify(jwtTokenProvider).revokeToken(validLogoutRequest.getToken());
+        verify(jwtTokenProvider).revokeToken(validLogoutRequest.getRefreshToken());
+        verify(jwtTokenProvider, never()).revokeAllTokens(anyString());
+    }
+
+    @Test
+    void logout_AllDevices_WritesSingleWatermark() {
+        // Arrange
+        LogoutRequest allDevicesRequest = new LogoutRequest("accessToken", "refreshToken", true);
+        when(jwtTokenProvider.validateRefreshToken(allDevicesRequest.getRefreshToken()))
+                .thenReturn(validUser.getEmail());
+        when(userRepository.findByEmail(validUser.getEmail()))
+                .thenReturn(Optional.of(validUser));
+
+        // Act
+        ApiResponse<Void> response = authService.logout(allDevicesRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        verify(jwtTokenProvider).revokeAllTokens(validUser.getEmail());
+        verify(jwtTokenProvider, never()).revokeToken(anyString());
     }
 
 
@@ -117,7 +134,7 @@ class AuthServiceLogoutTest {
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertEquals("404 NOT_FOUND \"User not found\"", exception.getMessage());
-        verify(tokenRepository, never()).addToBlacklist(anyString(), anyLong());
+        verify(jwtTokenProvider, never()).revokeToken(anyString());
     }
 
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
 import com.example.auth_service.repository.TokenRepository;
 import com.example.auth_service.security.JwtTokenProvider;
+import com.example.auth_service.security.UserCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +21,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -38,11 +42,15 @@ class AuthServiceRefreshTokenTests {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
     private RefreshTokenRequest validRefreshRequest;
     private User validUser;
+    private Claims presentedClaims;
 
     @BeforeEach
     void setUp() {
@@ -53,21 +61,27 @@ class AuthServiceRefreshTokenTests {
                 .id(UUID.randomUUID())
                 .status("ACTIVE")
                 .build();
+        presentedClaims = Jwts.claims()
+                .id("old-jti")
+                .subject(validUser.getEmail())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .build();
     }
 
     @Test
     void refreshToken_Successful() {
         // Arrange
-        when(jwtTokenProvider.validateRefreshToken(validRefreshRequest.getRefreshToken()))
-                .thenReturn(validUser.getEmail());
-        when(userRepository.findByEmail(validUser.getEmail()))
+        when(jwtTokenProvider.parseRefreshToken(validRefreshRequest.getRefreshToken()))
+                .thenReturn(presentedClaims);
+        when(userCache.get(validUser.getEmail()))
                 .thenReturn(Optional.of(validUser));
-        when(jwtTokenProvider.generateToken(validUser.getEmail()))
+        when(jwtTokenProvider.generateToken(validUser))
                 .thenReturn("newAccessToken");
         when(jwtTokenProvider.generateRefreshToken(validUser.getEmail()))
                 .thenReturn("newRefreshToken");
         when(jwtTokenProvider.getJwtExpirationInMs()).thenReturn(3600000L);
-        when(jwtTokenProvider.getRefreshExpirationInMs()).thenReturn(86400000L);
+        when(jwtTokenProvider.rotateRefreshToken(presentedClaims, "validRefreshToken", "newRefreshToken"))
+                .thenReturn(true);
 
         // Act
         ApiResponse<AuthResponse> apiResponse = authService.refreshToken(validRefreshRequest);
@@ -86,24 +100,37 @@ class AuthServiceRefreshTokenTests {
         assertEquals(HttpStatus.OK.value(), apiResponse.getStatus());
         assertNotNull(apiResponse.getTimestamp());
 
-        verify(jwtTokenProvider).validateRefreshToken(validRefreshRequest.getRefreshToken());
-        verify(userRepository).findByEmail(validUser.getEmail());
-        verify(tokenRepository).saveRefreshToken(
-                validUser.getEmail(),
-                "newRefreshToken",
-                86400000L
-        );
-        verify(tokenRepository).addToBlacklist(
-                validRefreshRequest.getRefreshToken(),
-                86400000L
-        );
+        verify(jwtTokenProvider).parseRefreshToken(validRefreshRequest.getRefreshToken());
+        verify(userCache).get(validUser.getEmail());
+        verify(jwtTokenProvider).rotateRefreshToken(presentedClaims, "validRefreshToken", "newRefreshToken");
+        verifyNoInteractions(tokenRepository);
+    }
+
+    @Test
+    void refreshToken_AlreadyRotatedByConcurrentRefresh_ThrowsUnauthorized() {
+        // Arrange
+        when(jwtTokenProvider.parseRefreshToken(validRefreshRequest.getRefreshToken()))
+                .thenReturn(presentedClaims);
+        when(userCache.get(validUser.getEmail()))
+                .thenReturn(Optional.of(validUser));
+        when(jwtTokenProvider.generateRefreshToken(validUser.getEmail()))
+                .thenReturn("newRefreshToken");
+        when(jwtTokenProvider.rotateRefreshToken(presentedClaims, "validRefreshToken", "newRefreshToken"))
+                .thenReturn(false);
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> authService.refreshToken(validRefreshRequest));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
+        assertEquals("401 UNAUTHORIZED \"Invalid refresh token\"", exception.getMessage());
     }
 
     @Test
     void refreshToken_InvalidRefreshToken_ThrowsUnauthorized() {
         // Arrange
         RefreshTokenRequest invalidRequest = new RefreshTokenRequest("invalidToken");
-        when(jwtTokenProvider.validateRefreshToken(invalidRequest.getRefreshToken()))
+        when(jwtTokenProvider.parseRefreshToken(invalidRequest.getRefreshToken()))
                 .thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
 
         // Act & Assert
@@ -112,17 +139,17 @@ class AuthServiceRefreshTokenTests {
 
         assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
         assertEquals("401 UNAUTHORIZED \"Invalid refresh token\"", exception.getMessage());
-        verify(jwtTokenProvider).validateRefreshToken(invalidRequest.getRefreshToken());
-        verifyNoInteractions(userRepository);
+        verify(jwtTokenProvider).parseRefreshToken(invalidRequest.getRefreshToken());
+        verifyNoInteractions(userCache);
         verifyNoInteractions(tokenRepository);
     }
 
     @Test
     void refreshToken_UserNotFound_ThrowsUnauthorized() {
         // Arrange
-        when(jwtTokenProvider.validateRefreshToken(validRefreshRequest.getRefreshToken()))
-                .thenReturn("nonexistent@example.com");
-        when(userRepository.findByEmail("nonexistent@example.com"))
+        when(jwtTokenProvider.parseRefreshToken(validRefreshRequest.getRefreshToken()))
+                .thenReturn(Jwts.claims().subject("nonexistent@example.com").build());
+        when(userCache.get("nonexistent@example.com"))
                 .thenReturn(Optional.empty());
 
         // Act & Assert
@@ -131,8 +158,8 @@ class AuthServiceRefreshTokenTests {
 
         assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatusCode());
         assertEquals("401 UNAUTHORIZED \"User not found\"", exception.getMessage());
-        verify(jwtTokenProvider).validateRefreshToken(validRefreshRequest.getRefreshToken());
-        verify(userRepository).findByEmail("nonexistent@example.com");
+        verify(jwtTokenProvider).parseRefreshToken(validRefreshRequest.getRefreshToken());
+        verify(userCache).get("nonexistent@example.com");
         verifyNoInteractions(tokenRepository);
     }
 
@@ -4,8 +4,12 @@ import com.example.auth_service.dto.AuthResponse;
 import com.example.auth_service.dto.ApiResponse;
 import com.example.auth_service.dto.RegisterRequest;
 import com.example.auth_service.entity.User;
+import com.example.auth_service.kafka.UserEventPublisher;
+import com.example.auth_service.repository.TokenRepository;
+import com.example.auth_service.repository.UserIdIndex;
 import com.example.auth_service.repository.UserRepository;
 import com.example.auth_service.security.JwtTokenProvider;
+import com.example.auth_service.security.PasswordHasher;
 import com.example.auth_service.service.guard.AuthGuard;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
@@ -16,16 +20,19 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 import jakarta.validation.Validator;
 
 import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,14 +46,26 @@ class AuthServiceRegisterTests {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private TokenRepository tokenRepository;
+
     @Mock
     private AuthGuard authGuard;
 
+    @Mock
+    private UserIdIndex userIdIndex;
+
+    @Mock
+    private UserEventPublisher userEventPublisher;
+
+    @Spy
+    private AsyncTaskExecutor taskExecutor = new TaskExecutorAdapter(Runnable::run);
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -74,14 +93,15 @@ class AuthServiceRegisterTests {
                 .status("online")
                 .build();
 
-        when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
+        when(passwordHasher.encode(any())).thenReturn(CompletableFuture.completedFuture("encodedPassword"));
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(jwtTokenProvider.generateToken(any())).thenReturn("accessToken");
+        when(jwtTokenProvider.generateToken(any(User.class))).thenReturn("accessToken");
         when(jwtTokenProvider.generateRefreshToken(any())).thenReturn("refreshToken");
         when(jwtTokenProvider.getJwtExpirationInMs()).thenReturn(3600000L);
+        when(jwtTokenProvider.getRefreshExpirationInMs()).thenReturn(86400000L);
 
         // Act
-        ApiResponse<AuthResponse> apiResponse = authService.register(validRequest);
+        ApiResponse<AuthResponse> apiResponse = authService.register(validRequest).join();
         AuthResponse response = apiResponse.getData();
 
         // Assert
@@ -98,6 +118,11 @@ class AuthServiceRegisterTests {
 
         verify(authGuard).checkRegistrationEligibility(validRequest);
         verify(userRepository).save(any(User.class));
+        verify(userIdIndex).add(any());
+        verify(userEventPublisher).userRegistered(any());
+        verify(tokenRepository).saveRefreshToken("test@example.com", "refreshToken", 86400000L);
+        // The save and token work after hashing ran on the task executor, not on the hashing pool
+        verify(taskExecutor).execute(any());
     }
 
     @Test
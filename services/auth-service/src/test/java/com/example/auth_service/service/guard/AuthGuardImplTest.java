@@ -0,0 +1,88 @@
+package com.example.auth_service.service.guard;
+
+import com.example.auth_service.dto.LoginRequest;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.repository.UserRepository;
+import com.example.auth_service.security.PasswordHasher;
+import com.example.auth_service.security.UserCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Rehash on login with a real hashing pool: the stored hash uses cost 4, the encoder wants cost 5,
+ * so a successful login schedules an upgrade of the stored hash.
+ */
+class AuthGuardImplTest {
+
+    private static final String PASSWORD = "password123";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserCache userCache = mock(UserCache.class);
+    private final CompletableFuture<String> updateThread = new CompletableFuture<>();
+    private PasswordHasher passwordHasher;
+    private AuthGuardImpl authGuard;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(5), new SimpleMeterRegistry(), 1, 8);
+        authGuard = new AuthGuardImpl(userRepository, passwordHasher, userCache,
+                new TaskExecutorAdapter(task -> Thread.ofVirtual().name("task-executor").start(task)));
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("user@example.com")
+                .passwordHash(new BCryptPasswordEncoder(4).encode(PASSWORD))
+                .build();
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void checkLoginAndGetUser_OutdatedCost_HashReplacedOffTheHashingPool() throws Exception {
+        String oldHash = user.getPasswordHash();
+        when(userRepository.replacePasswordHash(eq(user.getId()), eq(oldHash), anyString())).thenAnswer(invocation -> {
+            updateThread.complete(Thread.currentThread().getName());
+            return 1;
+        });
+
+        User loggedIn = authGuard.checkLoginAndGetUser(new LoginRequest(user.getEmail(), PASSWORD)).join();
+
+        assertSame(user, loggedIn);
+        assertEquals("task-executor", updateThread.get(5, TimeUnit.SECONDS));
+        verify(userRepository).replacePasswordHash(eq(user.getId()), eq(oldHash),
+                argThat(newHash -> newHash.startsWith("$2a$05$") && new BCryptPasswordEncoder().matches(PASSWORD, newHash)));
+        verify(userCache, timeout(5_000)).evict(user.getEmail());
+    }
+
+    @Test
+    void checkLoginAndGetUser_HashChangedConcurrently_CacheKept() throws Exception {
+        when(userRepository.replacePasswordHash(eq(user.getId()), eq(user.getPasswordHash()), anyString()))
+                .thenAnswer(invocation -> {
+                    updateThread.complete(Thread.currentThread().getName());
+                    return 0;
+                });
+
+        authGuard.checkLoginAndGetUser(new LoginRequest(user.getEmail(), PASSWORD)).join();
+
+        updateThread.get(5, TimeUnit.SECONDS);
+        verify(userRepository, timeout(5_000)).replacePasswordHash(any(), any(), any());
+        verify(userCache, after(200).never()).evict(any());
+    }
+}
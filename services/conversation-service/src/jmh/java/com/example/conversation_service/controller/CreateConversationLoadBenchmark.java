@@ -0,0 +1,211 @@
+package com.example.conversation_service.controller;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import com.example.conversation_service.ConversationServiceApplication;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load on {@code POST /api/conversations} while users are validated over Kafka request-reply.
+ * <p>
+ * Boots an embedded KRaft broker, a stub auth-service that answers each validation request after
+ * {@code replyDelayMs}, and conversation-service itself on a random port against the Postgres at
+ * {@code jdbc.url} (default {@code jdbc:postgresql://localhost:5432/postgres}), in a throwaway schema migrated by Flyway.
+ * The user-lifecycle topic is never created, so every request takes the request-reply path. Requests
+ * cycle through a fixed set of user pairs, so after the first pass they answer 409 from a small table
+ * and the database stays out of the way; {@code freshPairs=true} sends new pairs instead. Each JMH thread
+ * is one client: run with {@code -t 400} to put more requests in flight than Tomcat has threads.
+ * {@link #createConversationsBulk()} posts {@code bulkPairs} new pairs per call to the bulk endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CreateConversationLoadBenchmark {
+
+    private static final int USER_PAIRS = 1_000;
+    private static final String SCHEMA = "conversation_load_benchmark";
+
+    @Param("200")
+    private long replyDelayMs;
+
+    @Param("false")
+    private boolean freshPairs;
+
+    @Param("100")
+    private int bulkPairs;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private StubAuthService stubAuthService;
+    private ConfigurableApplicationContext application;
+    private HttpClient http;
+    private URI endpoint;
+    private URI bulkEndpoint;
+    private final String[] bodies = new String[USER_PAIRS];
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        broker = new EmbeddedKafkaKraftBroker(1, 1,
+                KafkaTopics.USER_EXISTENCE_REQUEST, KafkaTopics.USER_EXISTENCE_RESPONSE);
+        broker.afterPropertiesSet();
+        stubAuthService = new StubAuthService(broker.getBrokersAsString(), replyDelayMs);
+
+        application = new SpringApplicationBuilder(ConversationServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                "--spring.datasource.url=" + System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                "--spring.datasource.username=" + System.getProperty("jdbc.user", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("jdbc.password", ""),
+                "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                "--spring.datasource.hikari.schema=" + SCHEMA,
+                "--spring.flyway.schemas=" + SCHEMA,
+                "--logging.level.root=WARN");
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        endpoint = URI.create("http://localhost:" + port + "/api/conversations");
+        bulkEndpoint = URI.create("http://localhost:" + port + "/api/conversations/bulk");
+
+        for (int i = 0; i < USER_PAIRS; i++) {
+            bodies[i] = pair();
+        }
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        // The reply container starts at the latest offset, so let it join before measuring
+        Thread.sleep(5_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("\nResponse statuses: " + statuses);
+        application.getBean(JdbcTemplate.class).execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        application.close();
+        stubAuthService.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public int createConversation() throws Exception {
+        String body = freshPairs ? pair() : bodies[ThreadLocalRandom.current().nextInt(USER_PAIRS)];
+        return post(endpoint, body);
+    }
+
+    @Benchmark
+    public int createConversationsBulk() throws Exception {
+        StringBuilder body = new StringBuilder("{\"pairs\":[");
+        for (int i = 0; i < bulkPairs; i++) {
+            body.append(i == 0 ? "" : ",").append(pair());
+        }
+        return post(bulkEndpoint, body.append("]}").toString());
+    }
+
+    private int post(URI uri, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        statuses.computeIfAbsent(status, ignored -> new LongAdder()).increment();
+        return status;
+    }
+
+    private static String pair() {
+        return "{\"user1Id\":\"" + UUID.randomUUID() + "\",\"user2Id\":\"" + UUID.randomUUID() + "\"}";
+    }
+
+    /** Answers every validation request as valid after a fixed delay, on its reply partition, like a slow auth-service. */
+    static final class StubAuthService implements AutoCloseable {
+        private final KafkaConsumer<String, UserValidationRequest> consumer;
+        private final KafkaProducer<String, Object> producer;
+        private final ScheduledExecutorService delays = Executors.newScheduledThreadPool(4);
+        private final Thread poller;
+        private volatile boolean running = true;
+
+        StubAuthService(String bootstrapServers, long replyDelayMs) {
+            consumer = new KafkaConsumer<>(Map.of(
+                    ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                    ConsumerConfig.GROUP_ID_CONFIG, "stub-auth-service",
+                    ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                    ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                    ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class,
+                    JsonDeserializer.VALUE_DEFAULT_TYPE, UserValidationRequest.class.getName(),
+                    JsonDeserializer.USE_TYPE_INFO_HEADERS, false));
+            producer = new KafkaProducer<>(Map.of(
+                    ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                    ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                    ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+                    JsonSerializer.ADD_TYPE_INFO_HEADERS, false));
+            consumer.subscribe(List.of(KafkaTopics.USER_EXISTENCE_REQUEST));
+
+            poller = Thread.ofPlatform().name("stub-auth-service").start(() -> {
+                try {
+                    while (running) {
+                        for (ConsumerRecord<String, UserValidationRequest> record : consumer.poll(Duration.ofMillis(50))) {
+                            delays.schedule(() -> reply(record), replyDelayMs, TimeUnit.MILLISECONDS);
+                        }
+                    }
+                } catch (WakeupException ignored) {
+                    // closing
+                } finally {
+                    consumer.close();
+                }
+            });
+        }
+
+        private void reply(ConsumerRecord<String, UserValidationRequest> request) {
+            Header partition = request.headers().lastHeader(KafkaHeaders.REPLY_PARTITION);
+            ProducerRecord<String, Object> reply = new ProducerRecord<>(KafkaTopics.USER_EXISTENCE_RESPONSE,
+                    partition == null ? null : ByteBuffer.wrap(partition.value()).getInt(), null,
+                    new UserValidationResponse(request.value().correlationId(), true, "All users exist"));
+            Header correlation = request.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+            if (correlation != null) {
+                reply.headers().add(KafkaHeaders.CORRELATION_ID, correlation.value());
+            }
+            producer.send(reply);
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            consumer.wakeup();
+            delays.shutdownNow();
+            producer.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.conversation_service.repository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing one user's conversations: the old {@code user1_id = ? OR user2_id = ?} query over conversations
+ * (all rows, or newest {@code pageSize}) against one keyset page of conversation_members at a random depth.
+ * Scratch tables mirror the V2/V3 migrations; every conversation involves the heavy user with probability
+ * {@code heavyShare}. Needs a Postgres at {@code jdbc.url} (default
+ * {@code jdbc:postgresql://localhost:5432/postgres}, user {@code jdbc.user}/{@code jdbc.password}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConversationPageQueryBenchmark {
+
+    private static final UUID HEAVY_USER = new UUID(0, 1);
+    private static final int CURSORS = 1024;
+
+    @Param("1000000")
+    private int conversations;
+
+    @Param("0.01")
+    private double heavyShare;
+
+    @Param("20")
+    private int pageSize;
+
+    private Connection connection;
+    private PreparedStatement orAll;
+    private PreparedStatement orNewest;
+    private PreparedStatement keysetPage;
+    private OffsetDateTime[] cursorTimes;
+    private UUID[] cursorIds;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("jdbc.user", "postgres"),
+                System.getProperty("jdbc.password", ""));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_conversation_members, bench_conversations");
+            statement.execute("""
+                CREATE TABLE bench_conversations (
+                    conversation_id UUID NOT NULL PRIMARY KEY,
+                    user1_id        UUID NOT NULL,
+                    user2_id        UUID NOT NULL,
+                    created_at      TIMESTAMP(6) WITH TIME ZONE,
+                    UNIQUE (user1_id, user2_id)
+                )""");
+            statement.execute("""
+                INSERT INTO bench_conversations
+                SELECT md5('c' || g)::uuid,
+                       CASE WHEN random() < %s THEN '%s'::uuid ELSE md5('a' || g)::uuid END,
+                       md5('b' || g)::uuid,
+                       now() - g * interval '1 second'
+                FROM generate_series(1, %d) g""".formatted(heavyShare, HEAVY_USER, conversations));
+            statement.execute("""
+                CREATE TABLE bench_conversation_members (
+                    user_id         UUID                        NOT NULL,
+                    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                    conversation_id UUID                        NOT NULL,
+                    peer_id         UUID                        NOT NULL,
+                    PRIMARY KEY (user_id, created_at, conversation_id) INCLUDE (peer_id)
+                )""");
+            statement.execute("""
+                INSERT INTO bench_conversation_members
+                SELECT user1_id, created_at, conversation_id, user2_id FROM bench_conversations
+                UNION ALL
+                SELECT user2_id, created_at, conversation_id, user1_id FROM bench_conversations""");
+            statement.execute("VACUUM ANALYZE bench_conversations");
+            statement.execute("VACUUM ANALYZE bench_conversation_members");
+        }
+
+        cursorTimes = new OffsetDateTime[CURSORS];
+        cursorIds = new UUID[CURSORS];
+        try (PreparedStatement sample = connection.prepareStatement("""
+                SELECT created_at, conversation_id FROM bench_conversation_members
+                WHERE user_id = ? ORDER BY random() LIMIT ?""")) {
+            sample.setObject(1, HEAVY_USER);
+            sample.setInt(2, CURSORS);
+            try (ResultSet rs = sample.executeQuery()) {
+                int i = 0;
+                for (; rs.next(); i++) {
+                    cursorTimes[i] = rs.getObject(1, OffsetDateTime.class);
+                    cursorIds[i] = rs.getObject(2, UUID.class);
+                }
+                System.out.printf("%nHeavy user has %,d+ conversations of %,d%n", i, conversations);
+            }
+        }
+
+        orAll = connection.prepareStatement("""
+            SELECT * FROM bench_conversations WHERE user1_id = ? OR user2_id = ?""");
+        orNewest = connection.prepareStatement("""
+            SELECT * FROM bench_conversations WHERE user1_id = ? OR user2_id = ?
+            ORDER BY created_at DESC, conversation_id DESC LIMIT ?""");
+        keysetPage = connection.prepareStatement("""
+            SELECT conversation_id, user_id, peer_id, created_at FROM bench_conversation_members
+            WHERE user_id = ? AND (created_at, conversation_id) < (?, ?)
+            ORDER BY created_at DESC, conversation_id DESC LIMIT ?""");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_conversation_members, bench_conversations");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int orAllConversations() throws SQLException {
+        orAll.setObject(1, HEAVY_USER);
+        orAll.setObject(2, HEAVY_USER);
+        return count(orAll);
+    }
+
+    @Benchmark
+    public int orNewestPage() throws SQLException {
+        orNewest.setObject(1, HEAVY_USER);
+        orNewest.setObject(2, HEAVY_USER);
+        orNewest.setInt(3, pageSize);
+        return count(orNewest);
+    }
+
+    @Benchmark
+    public int keysetPage() throws SQLException {
+        int cursor = ThreadLocalRandom.current().nextInt(CURSORS);
+        keysetPage.setObject(1, HEAVY_USER);
+        keysetPage.setObject(2, cursorTimes[cursor]);
+        keysetPage.setObject(3, cursorIds[cursor]);
+        keysetPage.setInt(4, pageSize);
+        return count(keysetPage);
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.conversation_service.repository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of a conversation's history as it grows: the newest page, a keyset page before a random
+ * message, and the OFFSET page at that same depth for comparison. The scratch table mirrors the V4
+ * migration and holds {@code depth} messages of one conversation with version 7 ids built from their
+ * send time. The keyset pages should stay flat across depths; the OFFSET page grows with the depth.
+ * Needs a Postgres at {@code jdbc.url} (default {@code jdbc:postgresql://localhost:5432/postgres},
+ * user {@code jdbc.user}/{@code jdbc.password}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageHistoryQueryBenchmark {
+
+    private static final UUID CONVERSATION = new UUID(0, 1);
+    private static final int CURSORS = 1024;
+
+    @Param({"1000", "100000", "10000000"})
+    private int depth;
+
+    @Param("50")
+    private int pageSize;
+
+    private Connection connection;
+    private PreparedStatement latestPage;
+    private PreparedStatement keysetPage;
+    private PreparedStatement offsetPage;
+    private UUID[] cursorIds;
+    private int[] cursorOffsets;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("jdbc.user", "postgres"),
+                System.getProperty("jdbc.password", ""));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_messages");
+            statement.execute("""
+                CREATE TABLE bench_messages (
+                    conversation_id UUID                        NOT NULL,
+                    message_id      UUID                        NOT NULL,
+                    sender_id       UUID                        NOT NULL,
+                    content         TEXT                        NOT NULL,
+                    sent_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                    PRIMARY KEY (conversation_id, message_id)
+                )""");
+            // Message g is sent g ms after the epoch below; its id is that millisecond, version 7, random tail
+            statement.execute("""
+                INSERT INTO bench_messages
+                SELECT '%s'::uuid,
+                       (lpad(to_hex(1700000000000 + g), 12, '0') || '7' || substr(md5('m' || g), 1, 3)
+                            || '8' || substr(md5('m' || g), 4, 15))::uuid,
+                       md5('s' || (g %% 2))::uuid,
+                       'message ' || g,
+                       to_timestamp((1700000000000 + g) / 1000.0)
+                FROM generate_series(1, %d) g""".formatted(CONVERSATION, depth));
+            statement.execute("VACUUM ANALYZE bench_messages");
+        }
+
+        cursorIds = new UUID[CURSORS];
+        cursorOffsets = new int[CURSORS];
+        try (PreparedStatement sample = connection.prepareStatement("""
+                SELECT message_id, row_number() OVER (ORDER BY message_id DESC) - 1 FROM bench_messages
+                WHERE conversation_id = ? ORDER BY random() LIMIT ?""")) {
+            sample.setObject(1, CONVERSATION);
+            sample.setInt(2, CURSORS);
+            try (ResultSet rs = sample.executeQuery()) {
+                int i = 0;
+                for (; rs.next(); i++) {
+                    cursorIds[i] = rs.getObject(1, UUID.class);
+                    cursorOffsets[i] = rs.getInt(2) + 1;
+                }
+                for (int j = i; j < CURSORS; j++) {
+                    cursorIds[j] = cursorIds[j % i];
+                    cursorOffsets[j] = cursorOffsets[j % i];
+                }
+            }
+        }
+
+        latestPage = connection.prepareStatement("""
+            SELECT conversation_id, message_id, sender_id, content, sent_at FROM bench_messages
+            WHERE conversation_id = ? ORDER BY message_id DESC LIMIT ?""");
+        keysetPage = connection.prepareStatement("""
+            SELECT conversation_id, message_id, sender_id, content, sent_at FROM bench_messages
+            WHERE conversation_id = ? AND message_id < ? ORDER BY message_id DESC LIMIT ?""");
+        offsetPage = connection.prepareStatement("""
+            SELECT conversation_id, message_id, sender_id, content, sent_at FROM bench_messages
+            WHERE conversation_id = ? ORDER BY message_id DESC LIMIT ? OFFSET ?""");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_messages");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int latestPage() throws SQLException {
+        latestPage.setObject(1, CONVERSATION);
+        latestPage.setInt(2, pageSize);
+        return count(latestPage);
+    }
+
+    @Benchmark
+    public int keysetPage() throws SQLException {
+        int cursor = ThreadLocalRandom.current().nextInt(CURSORS);
+        keysetPage.setObject(1, CONVERSATION);
+        keysetPage.setObject(2, cursorIds[cursor]);
+        keysetPage.setInt(3, pageSize);
+        return count(keysetPage);
+    }
+
+    @Benchmark
+    public int offsetPage() throws SQLException {
+        int cursor = ThreadLocalRandom.current().nextInt(CURSORS);
+        offsetPage.setObject(1, CONVERSATION);
+        offsetPage.setInt(2, pageSize);
+        offsetPage.setInt(3, cursorOffsets[cursor]);
+        return count(offsetPage);
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.conversation_service.websocket;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.conversation_service.ConversationServiceApplication;
+import com.example.conversation_service.config.WebSocketConfig;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chat WebSocket fan-out under a swarm of idle connections.
+ * <p>
+ * Boots conversation-service on a random port (embedded KRaft broker, Postgres at {@code jdbc.url} in a
+ * throwaway schema, like {@code CreateConversationLoadBenchmark}), creates {@code pairs} conversations and
+ * opens {@code connections} sockets with JDK WebSocket clients, spread over the users of those pairs.
+ * Setup prints how long the swarm took to connect and the server's session count and heap.
+ * {@link #broadcast()} sends one message from a random user and measures until a session of the other
+ * participant receives it. Raise the open-file limit (ulimit -n) before running large swarms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatWebSocketBenchmark {
+
+    private static final String SCHEMA = "chat_websocket_benchmark";
+    private static final String SECRET = "chat-websocket-benchmark-secret-at-least-256-bits-long";
+
+    @Param("10000")
+    private int connections;
+
+    @Param("1000")
+    private int pairs;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private ConfigurableApplicationContext application;
+    private final List<WebSocket> sockets = new ArrayList<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private UUID[][] conversations;
+    private Map<UUID, WebSocket> senderSockets;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (connections < 2 * pairs) {
+            throw new IllegalArgumentException("Every user needs a socket: connections must be at least 2 x pairs");
+        }
+        broker = new EmbeddedKafkaKraftBroker(1, 1,
+                KafkaTopics.USER_EXISTENCE_REQUEST, KafkaTopics.USER_EXISTENCE_RESPONSE);
+        broker.afterPropertiesSet();
+
+        application = new SpringApplicationBuilder(ConversationServiceApplication.class).run(
+                "--server.port=0",
+                "--jwt.secret=" + SECRET,
+                "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                "--spring.datasource.url=" + System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                "--spring.datasource.username=" + System.getProperty("jdbc.user", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("jdbc.password", ""),
+                "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                "--spring.datasource.hikari.schema=" + SCHEMA,
+                "--spring.flyway.schemas=" + SCHEMA,
+                "--logging.level.root=WARN");
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+
+        conversations = new UUID[pairs][];
+        JdbcTemplate jdbc = application.getBean(JdbcTemplate.class);
+        jdbc.batchUpdate("INSERT INTO conversations (conversation_id, user1_id, user2_id, created_at) VALUES (?, ?, ?, ?)",
+                createPairs(), pairs, (statement, pair) -> {
+                    statement.setObject(1, pair[0]);
+                    statement.setObject(2, pair[1]);
+                    statement.setObject(3, pair[2]);
+                    statement.setTimestamp(4, Timestamp.from(Instant.now()));
+                });
+
+        HttpClient http = HttpClient.newHttpClient();
+        senderSockets = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        List<CompletableFuture<WebSocket>> opening = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            UUID[] pair = conversations[i % pairs];
+            UUID user = pair[1 + (i / pairs) % 2];
+            URI uri = URI.create("ws://localhost:" + port + WebSocketConfig.CHAT_PATH + "?access_token=" + token(user));
+            opening.add(http.newWebSocketBuilder().buildAsync(uri, new Listener(user))
+                    .thenApply(socket -> {
+                        senderSockets.putIfAbsent(user, socket);
+                        return socket;
+                    }));
+            // Keep the handshake backlog bounded
+            if (opening.size() % 500 == 0) {
+                CompletableFuture.allOf(opening.toArray(CompletableFuture[]::new)).join();
+            }
+        }
+        for (CompletableFuture<WebSocket> socket : opening) {
+            sockets.add(socket.join());
+        }
+        long connectMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%n%,d sockets connected in %,d ms; server sessions %,d, heap in use %,d MB (client and server)%n",
+                sockets.size(), connectMs, application.getBean(SessionRegistry.class).sessionCount(),
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sockets.forEach(socket -> socket.abort());
+        application.getBean(JdbcTemplate.class).execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        application.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public void broadcast() throws Exception {
+        UUID[] pair = conversations[ThreadLocalRandom.current().nextInt(pairs)];
+        boolean fromFirst = ThreadLocalRandom.current().nextBoolean();
+        UUID sender = pair[fromFirst ? 1 : 2];
+        WebSocket socket = senderSockets.get(sender);
+
+        // The sender's own sessions get the message too; only the other participant's first session counts
+        String content = "m" + sequence.incrementAndGet();
+        CompletableFuture<Void> received = new CompletableFuture<>();
+        pending.put(content, new Pending(pair[fromFirst ? 2 : 1], received));
+        synchronized (socket) {
+            socket.sendText("{\"type\":\"send\",\"conversationId\":\"" + pair[0] + "\",\"content\":\"" + content + "\"}", true)
+                    .join();
+        }
+        received.get(10, TimeUnit.SECONDS);
+    }
+
+    private List<UUID[]> createPairs() {
+        List<UUID[]> rows = new ArrayList<>(pairs);
+        for (int i = 0; i < pairs; i++) {
+            UUID a = UUID.randomUUID();
+            UUID b = UUID.randomUUID();
+            UUID[] pair = a.compareTo(b) < 0 ? new UUID[]{UUID.randomUUID(), a, b} : new UUID[]{UUID.randomUUID(), b, a};
+            conversations[i] = pair;
+            rows.add(pair);
+        }
+        return rows;
+    }
+
+    private static String token(UUID userId) {
+        return Jwts.builder()
+                .subject(userId + "@benchmark")
+                .claim("uid", userId.toString())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private record Pending(UUID recipient, CompletableFuture<Void> received) {}
+
+    private final class Listener implements WebSocket.Listener {
+        private final UUID user;
+        private final StringBuilder partial = new StringBuilder();
+
+        Listener(UUID user) {
+            this.user = user;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String frame = partial.toString();
+                partial.setLength(0);
+                int at = frame.indexOf("\"content\":\"");
+                if (at >= 0) {
+                    String content = frame.substring(at + 11, frame.indexOf('"', at + 11));
+                    Pending waiting = pending.get(content);
+                    if (waiting != null && waiting.recipient().equals(user) && pending.remove(content, waiting)) {
+                        waiting.received().complete(null);
+                    }
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
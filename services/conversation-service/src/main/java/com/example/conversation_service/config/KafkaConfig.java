@@ -3,24 +3,35 @@ package com.example.conversation_service.config;
 import com.example.common.constants.KafkaTopics;
 import com.example.common.dto.UserValidationRequest;
 import com.example.common.dto.UserValidationResponse;
+import com.example.common.events.UserLifecycleEvent;
+import com.example.common.kafka.UserValidationCodec;
+import com.example.conversation_service.kafka.ChatMessageRelay;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
 import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 public class KafkaConfig {
@@ -31,33 +42,126 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:conversation-service-group}")
     private String groupId;
 
+    @Value("${kafka.user-validation.codec:json}")
+    private String validationCodec;
+
+    @Value("${conversation.user-validation.max-timeout-ms:5000}")
+    private long maxReplyTimeoutMs;
+
+    @Value("${conversation.kafka.reply-partitions:12}")
+    private int replyPartitions;
+
+    @Value("${conversation.kafka.reply-partition:-1}")
+    private int replyPartition;
+
+    @Value("${conversation.kafka.chat-partitions:12}")
+    private int chatPartitions;
+
+    // Sized for the most replicas expected; KafkaAdmin adds partitions to an existing smaller topic
+    @Bean
+    public NewTopic userExistenceResponseTopic() {
+        return TopicBuilder.name(KafkaTopics.USER_EXISTENCE_RESPONSE)
+                .partitions(replyPartitions)
+                .build();
+    }
+
+    @Bean
+    public NewTopic chatMessagesTopic() {
+        return TopicBuilder.name(KafkaTopics.CHAT_MESSAGES)
+                .partitions(chatPartitions)
+                .build();
+    }
+
     // Producer Configuration
     @Bean
     public ProducerFactory<String, UserValidationRequest> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        if ("binary".equals(validationCodec)) {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserValidationCodec.RequestSerializer.class);
+        } else {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        }
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
-    // Consumer Configuration for Reply Messages
+    // Consumer Configuration for Reply Messages; reads binary and JSON replies alike, whatever auth-service sends
     @Bean
     public ConsumerFactory<String, UserValidationResponse> replyConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-reply");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserValidationResponse.class.getName());
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, UserValidationCodec.ResponseDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
 
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
+    // Chat frames travel as the JSON bytes already sent to local sessions; they are stored in Postgres before
+    // they are published, so the relay waits for the leader only
+    @Bean
+    public ProducerFactory<String, byte[]> chatMessageProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "1");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> chatMessageKafkaTemplate() {
+        return new KafkaTemplate<>(chatMessageProducerFactory());
+    }
+
+    // Values stay raw bytes: a record for users not connected here is skipped on its headers alone
+    @Bean
+    public ConsumerFactory<String, byte[]> chatMessageConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    // A group of its own per node, so every node reads every partition. Live delivery only: offsets are never
+    // committed and a (re)started node begins at the end, as its clients reconnect and load history anyway
+    @Bean
+    public ConcurrentMessageListenerContainer<String, byte[]> chatMessageListenerContainer(ChatMessageRelay relay) {
+        ContainerProperties properties = new ContainerProperties(KafkaTopics.CHAT_MESSAGES);
+        properties.setGroupId(groupId + "-chat-" + relay.nodeId());
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setMessageListener((MessageListener<String, byte[]>) relay::onMessage);
+
+        return new ConcurrentMessageListenerContainer<>(chatMessageConsumerFactory(), properties);
+    }
+
+    // No group: every instance assigns all partitions itself and replays the compacted topic from the start
+    @Bean
+    public ConsumerFactory<String, UserLifecycleEvent> userLifecycleConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.common.events");
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserLifecycleEvent.class.getName());
+        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, UserValidationResponse> replyListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, UserValidationResponse> factory =
@@ -71,8 +175,11 @@ public class KafkaConfig {
     public ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> replyingKafkaTemplate() {
         ConcurrentKafkaListenerContainerFactory<String, UserValidationResponse> factory = replyListenerContainerFactory();
 
+        // Statically assigned to this instance's partition (no group rebalancing); the template puts the partition
+        // in the REPLY_PARTITION header so auth-service answers there. Offsets are never committed
         ConcurrentMessageListenerContainer<String, UserValidationResponse> replyContainer =
-                factory.createContainer(KafkaTopics.USER_EXISTENCE_RESPONSE);
+                factory.createContainer(new TopicPartitionOffset(
+                        KafkaTopics.USER_EXISTENCE_RESPONSE, replyPartition(), TopicPartitionOffset.SeekPosition.END));
 
         replyContainer.getContainerProperties().setGroupId(groupId + "-reply-template");
         replyContainer.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
@@ -80,8 +187,25 @@ public class KafkaConfig {
         ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> template =
                 new ReplyingKafkaTemplate<>(producerFactory(), replyContainer);
 
-        template.setDefaultReplyTimeout(Duration.ofSeconds(10));
+        // Instances that hash to the same partition see each other's replies; unknown correlation ids are expected
+        template.setSharedReplyTopic(true);
+        // UserValidationClient passes its adaptive timeout on every call; this only covers callers that do not
+        template.setDefaultReplyTimeout(Duration.ofMillis(maxReplyTimeoutMs));
 
         return template;
     }
+
+    // An explicit index (e.g. a StatefulSet ordinal) or a hash of the host name. A collision only means two
+    // instances read each other's replies and drop them; a reply is never lost to an instance that did not ask
+    int replyPartition() {
+        if (replyPartition >= replyPartitions) {
+            throw new IllegalStateException("conversation.kafka.reply-partition " + replyPartition
+                    + " is outside the " + replyPartitions + " reply partitions");
+        }
+        if (replyPartition >= 0) {
+            return replyPartition;
+        }
+        String hostName = System.getenv("HOSTNAME");
+        return Math.floorMod(hostName != null ? hostName.hashCode() : UUID.randomUUID().hashCode(), replyPartitions);
+    }
 }
\ No newline at end of file
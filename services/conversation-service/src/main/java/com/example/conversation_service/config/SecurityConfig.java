@@ -25,6 +25,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
                                 "/api/conversations/**",
+                                // Chat sockets authenticate the handshake themselves (JwtHandshakeInterceptor)
+                                "/ws/**",
                                 "/actuator/**",
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**"
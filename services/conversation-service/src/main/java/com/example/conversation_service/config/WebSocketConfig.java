@@ -0,0 +1,46 @@
+package com.example.conversation_service.config;
+
+import com.example.conversation_service.websocket.ChatWebSocketHandler;
+import com.example.conversation_service.websocket.JwtHandshakeInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    public static final String CHAT_PATH = "/ws/chat";
+
+    private final ChatWebSocketHandler chatWebSocketHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+
+    @Value("${conversation.websocket.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    @Value("${conversation.websocket.max-text-message-chars:4096}")
+    private int maxTextMessageChars;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(chatWebSocketHandler, CHAT_PATH)
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    // Tomcat allocates the message buffers per session up front, so they set the memory floor of an idle socket.
+    // Chat frames are small text; binary frames are not used
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxTextMessageChars);
+        container.setMaxBinaryMessageBufferSize(256);
+        return container;
+    }
+}
@@ -1,13 +1,28 @@
 package com.example.conversation_service.controller;
 
 import com.example.common.dto.ApiResponse;
+import com.example.conversation_service.dto.BulkCreateConversationRequest;
+import com.example.conversation_service.dto.ConversationPage;
+import com.example.conversation_service.dto.ConversationPairResult;
 import com.example.conversation_service.dto.ConversationResponse;
 import com.example.conversation_service.dto.CreateConversationRequest;
+import com.example.conversation_service.dto.MessagePage;
+import com.example.conversation_service.security.AccessTokenVerifier;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.example.conversation_service.service.ConversationService;
+import com.example.conversation_service.service.MessageService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/conversations")
@@ -17,13 +32,82 @@ public class ConversationController {
     @Autowired
     private ConversationService conversationService;
 
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private AccessTokenVerifier tokenVerifier;
+
+    // Newest first; pass the returned nextCursor as 'after' for the following page
+    @GetMapping
+    public ResponseEntity<ApiResponse<ConversationPage>> listConversations(
+            @RequestParam("user") UUID userId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        ApiResponse<ConversationPage> response = conversationService.listConversations(userId, after, limit);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    // Newest first; pass the returned nextBefore as 'before' for older messages. Callers are authenticated
+    // with the same access token as the chat socket and must be one of the two participants
+    @GetMapping("/{conversationId}/messages")
+    public ResponseEntity<ApiResponse<MessagePage>> listMessages(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @PathVariable("conversationId") UUID conversationId,
+            @RequestParam(value = "before", required = false) UUID before,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        ApiResponse<MessagePage> response = tokenVerifier.userIdFromBearer(authorization)
+                .map(userId -> messageService.history(userId, conversationId, before, limit))
+                .orElseGet(() -> unauthorized("api/conversations/{id}/messages"));
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    // The caller's unread counts for a whole conversation list in one call, e.g. ?conversations=id1,id2,id3;
+    // the user is the one the access token names
+    @GetMapping("/unread")
+    public ResponseEntity<ApiResponse<Map<UUID, Long>>> unreadCounts(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(value = "conversations", defaultValue = "") List<UUID> conversationIds) {
+        ApiResponse<Map<UUID, Long>> response = tokenVerifier.userIdFromBearer(authorization)
+                .map(userId -> messageService.unreadCounts(userId, conversationIds))
+                .orElseGet(() -> unauthorized("api/conversations/unread"));
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    // Either order of the two users names the same conversation
+    @GetMapping("/between")
+    public ResponseEntity<ApiResponse<ConversationResponse>> findConversation(
+            @RequestParam("user1") UUID user1Id,
+            @RequestParam("user2") UUID user2Id) {
+        ApiResponse<ConversationResponse> response = conversationService.findConversation(user1Id, user2Id);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    // Validation waits on Kafka without holding the request thread
     @PostMapping
-    public ResponseEntity<ApiResponse<ConversationResponse>> createConversation(
+    public CompletableFuture<ResponseEntity<ApiResponse<ConversationResponse>>> createConversation(
             @RequestBody CreateConversationRequest request) {
-        ApiResponse<ConversationResponse> response = conversationService.createConversation(
+        return conversationService.createConversation(
                 request.getUser1Id(),
                 request.getUser2Id()
-        );
-        return ResponseEntity.status(response.getStatus()).body(response);
+        ).thenApply(response -> ResponseEntity.status(response.getStatus()).body(response));
+    }
+
+    // Per-pair outcomes are in the body; the response status only reflects the batch as a whole
+    @PostMapping("/bulk")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<ConversationPairResult>>>> createConversations(
+            @Valid @RequestBody BulkCreateConversationRequest request) {
+        return conversationService.createConversations(request.getPairs())
+                .thenApply(response -> ResponseEntity.status(response.getStatus()).body(response));
+    }
+
+    private static <T> ApiResponse<T> unauthorized(String path) {
+        return ApiResponse.<T>builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.UNAUTHORIZED.value())
+                .reason(HttpStatus.UNAUTHORIZED.getReasonPhrase())
+                .message("A valid access token is required")
+                .path(path)
+                .build();
     }
-}
\ No newline at end of file
+}
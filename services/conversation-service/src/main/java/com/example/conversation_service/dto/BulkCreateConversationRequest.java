@@ -0,0 +1,23 @@
+package com.example.conversation_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateConversationRequest {
+    public static final int MAX_PAIRS = 500;
+
+    @NotEmpty
+    @Size(max = MAX_PAIRS)
+    private List<@Valid @NotNull CreateConversationRequest> pairs;
+
+}
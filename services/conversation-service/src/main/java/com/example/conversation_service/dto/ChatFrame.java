@@ -0,0 +1,31 @@
+package com.example.conversation_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * JSON text frames on the chat WebSocket, told apart by their {@code type} property.
+ * Clients send {@link Send}; the server pushes {@link Message} to every live session of both
+ * participants, the sender's own sessions included, and answers a rejected send with {@link Error}.
+ * {@link Read} acknowledges that the client has shown a conversation's messages, clearing its unread count.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = ChatFrame.Send.class, name = "send"),
+        @JsonSubTypes.Type(value = ChatFrame.Read.class, name = "read"),
+        @JsonSubTypes.Type(value = ChatFrame.Message.class, name = "message"),
+        @JsonSubTypes.Type(value = ChatFrame.Error.class, name = "error")
+})
+public sealed interface ChatFrame {
+
+    record Send(UUID conversationId, String content) implements ChatFrame {}
+
+    record Read(UUID conversationId) implements ChatFrame {}
+
+    record Message(UUID id, UUID conversationId, UUID senderId, String content, Instant sentAt) implements ChatFrame {}
+
+    record Error(UUID conversationId, String message) implements ChatFrame {}
+}
@@ -0,0 +1,34 @@
+package com.example.conversation_service.dto;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last conversation of a page: its creation time and id, the listing's sort key.
+ * Clients get it as an opaque URL-safe token and pass it back as {@code after}.
+ */
+public record ConversationCursor(Instant createdAt, UUID conversationId) {
+
+    private static final int BYTES = 3 * Long.BYTES;
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES)
+                .putLong(createdAt.getEpochSecond() * 1_000_000 + createdAt.getNano() / 1_000)
+                .putLong(conversationId.getMostSignificantBits())
+                .putLong(conversationId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static ConversationCursor decode(String token) {
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long micros = buffer.getLong();
+        Instant createdAt = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000);
+        return new ConversationCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+}
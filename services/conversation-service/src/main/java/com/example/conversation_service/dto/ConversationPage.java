@@ -0,0 +1,14 @@
+package com.example.conversation_service.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ConversationPage {
+    private List<ConversationResponse> conversations;
+    // Absent on the last page
+    private String nextCursor;
+}
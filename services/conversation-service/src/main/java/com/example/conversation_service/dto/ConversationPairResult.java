@@ -0,0 +1,16 @@
+package com.example.conversation_service.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class ConversationPairResult {
+    private UUID user1Id;
+    private UUID user2Id;
+    private int status;
+    private String message;
+    private ConversationResponse conversation;
+}
@@ -0,0 +1,16 @@
+package com.example.conversation_service.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class MessagePage {
+    // Newest first
+    private List<MessageResponse> messages;
+    // Pass as 'before' for the next older page; absent on the oldest page
+    private UUID nextBefore;
+}
@@ -0,0 +1,17 @@
+package com.example.conversation_service.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+public class MessageResponse {
+    private UUID id;
+    private UUID conversationId;
+    private UUID senderId;
+    private String content;
+    private Instant sentAt;
+}
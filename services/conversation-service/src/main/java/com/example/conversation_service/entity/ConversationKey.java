@@ -0,0 +1,16 @@
+package com.example.conversation_service.entity;
+
+import java.util.UUID;
+
+/**
+ * A user pair in the order conversations store it: the smaller id is always {@code user1Id},
+ * so (a, b) and (b, a) name the same conversation.
+ */
+public record ConversationKey(UUID user1Id, UUID user2Id) {
+
+    public static ConversationKey of(UUID userA, UUID userB) {
+        return userA.compareTo(userB) < 0
+                ? new ConversationKey(userA, userB)
+                : new ConversationKey(userB, userA);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.conversation_service.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One row of the append-only {@code messages} table, read and written with plain JDBC. {@code id} is a
+ * UUIDv7, so ids of one conversation sort in send order and double as the history cursor.
+ */
+public record Message(UUID conversationId, UUID id, UUID senderId, String content, Instant sentAt) {
+}
@@ -0,0 +1,114 @@
+package com.example.conversation_service.kafka;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.conversation_service.websocket.SessionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries chat messages between conversation-service nodes over {@link KafkaTopics#CHAT_MESSAGES}.
+ * <p>
+ * The node a message was sent to delivers it to its own sessions and publishes it, keyed by conversation id.
+ * Every node reads the whole topic and delivers each record to the participants connected to it.
+ * The sender and recipient ids travel in a header, so a record for users with no session here is dropped
+ * with two map lookups and its payload is never decoded. Records a node published itself are skipped too.
+ */
+@Slf4j
+@Component
+public class ChatMessageRelay {
+
+    public static final String ORIGIN_HEADER = "chat-origin";
+    // Sender id then recipient id, 16 bytes each
+    public static final String PARTICIPANTS_HEADER = "chat-participants";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final byte[] nodeIdBytes = nodeId.getBytes(StandardCharsets.UTF_8);
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final SessionRegistry sessionRegistry;
+    private final Counter published;
+    private final Counter skipped;
+    private final Timer lag;
+
+    public ChatMessageRelay(KafkaTemplate<String, byte[]> chatMessageKafkaTemplate,
+                            SessionRegistry sessionRegistry,
+                            MeterRegistry meterRegistry) {
+        this.kafkaTemplate = chatMessageKafkaTemplate;
+        this.sessionRegistry = sessionRegistry;
+        this.published = Counter.builder("conversation.chat_relay.published")
+                .description("Chat messages published for other nodes")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("conversation.chat_relay.skipped")
+                .description("Relayed chat messages with no participant connected to this node")
+                .register(meterRegistry);
+        this.lag = Timer.builder("conversation.chat_relay.lag")
+                .description("Time from publishing a chat message to delivering it on another node")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public void publish(UUID conversationId, UUID senderId, UUID recipientId, byte[] frame) {
+        ProducerRecord<String, byte[]> record =
+                new ProducerRecord<>(KafkaTopics.CHAT_MESSAGES, conversationId.toString(), frame);
+        record.headers().add(ORIGIN_HEADER, nodeIdBytes);
+        record.headers().add(PARTICIPANTS_HEADER, ByteBuffer.allocate(32)
+                .putLong(senderId.getMostSignificantBits()).putLong(senderId.getLeastSignificantBits())
+                .putLong(recipientId.getMostSignificantBits()).putLong(recipientId.getLeastSignificantBits())
+                .array());
+
+        kafkaTemplate.send(record).whenComplete((result, failure) -> {
+            if (failure != null) {
+                log.warn("Failed to relay a message of conversation {}: {}", conversationId, failure.getMessage());
+            }
+        });
+        published.increment();
+    }
+
+    public void onMessage(ConsumerRecord<String, byte[]> record) {
+        Header origin = record.headers().lastHeader(ORIGIN_HEADER);
+        Header participants = record.headers().lastHeader(PARTICIPANTS_HEADER);
+        if (origin != null && Arrays.equals(origin.value(), nodeIdBytes)) {
+            return;
+        }
+        if (participants == null || participants.value().length != 32) {
+            log.debug("Dropping chat record without participants at offset {}", record.offset());
+            return;
+        }
+
+        ByteBuffer ids = ByteBuffer.wrap(participants.value());
+        UUID senderId = new UUID(ids.getLong(), ids.getLong());
+        UUID recipientId = new UUID(ids.getLong(), ids.getLong());
+        boolean recipientHere = sessionRegistry.isConnected(recipientId);
+        boolean senderHere = !senderId.equals(recipientId) && sessionRegistry.isConnected(senderId);
+        if (!recipientHere && !senderHere) {
+            skipped.increment();
+            return;
+        }
+
+        TextMessage frame = new TextMessage(record.value());
+        if (recipientHere) {
+            sessionRegistry.deliver(recipientId, frame);
+        }
+        if (senderHere) {
+            sessionRegistry.deliver(senderId, frame);
+        }
+        lag.record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+    }
+}
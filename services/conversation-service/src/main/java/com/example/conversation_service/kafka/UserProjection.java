@@ -0,0 +1,201 @@
+package com.example.conversation_service.kafka;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.common.events.UserDeleted;
+import com.example.common.events.UserLifecycleEvent;
+import com.example.common.events.UserRegistered;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local view of which user ids exist, projected from the compacted {@link KafkaTopics#USER_LIFECYCLE} topic.
+ * <p>
+ * Every start rebuilds the view: the consumer assigns all partitions without a group, seeks to the
+ * beginning and replays up to the end offsets it saw at assignment. Only then is the projection
+ * {@linkplain #isCaughtUp() caught up} and trusted for validation; afterwards it keeps tailing the topic.
+ * If the consumer dies the projection drops back to not caught up, so callers return to asking auth-service.
+ */
+@Slf4j
+@Component
+public class UserProjection {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long TOPIC_RETRY_MS = 5_000;
+
+    private final ConsumerFactory<String, UserLifecycleEvent> consumerFactory;
+    private final Set<UUID> userIds;
+    private volatile boolean caughtUp;
+    private volatile boolean running;
+    private volatile Consumer<String, UserLifecycleEvent> consumer;
+    private Thread thread;
+
+    public UserProjection(ConsumerFactory<String, UserLifecycleEvent> consumerFactory,
+                          MeterRegistry meterRegistry,
+                          @Value("${conversation.user-projection.expected-users:100000}") int expectedUsers) {
+        this.consumerFactory = consumerFactory;
+        this.userIds = ConcurrentHashMap.newKeySet(expectedUsers);
+
+        Gauge.builder("conversation.user_projection.size", userIds, Set::size)
+                .description("User ids held in the local user projection")
+                .register(meterRegistry);
+        Gauge.builder("conversation.user_projection.caught_up", this, projection -> projection.caughtUp ? 1 : 0)
+                .description("1 once the projection has replayed the user-lifecycle topic")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("user-projection").daemon(true).start(this::run);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        Consumer<String, UserLifecycleEvent> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TOPIC_RETRY_MS);
+        }
+    }
+
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    public boolean containsAll(Collection<UUID> ids) {
+        return userIds.containsAll(ids);
+    }
+
+    public List<UUID> missing(Collection<UUID> ids) {
+        return ids.stream()
+                .filter(id -> !userIds.contains(id))
+                .distinct()
+                .toList();
+    }
+
+    public int size() {
+        return userIds.size();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        try (Consumer<String, UserLifecycleEvent> created = consumerFactory.createConsumer(null, "-user-projection")) {
+            consumer = created;
+            Map<TopicPartition, Long> replayTo = assignFromBeginning(created);
+
+            while (running) {
+                for (ConsumerRecord<String, UserLifecycleEvent> record : created.poll(POLL_TIMEOUT)) {
+                    apply(record);
+                }
+                if (!caughtUp && reached(created, replayTo)) {
+                    caughtUp = true;
+                    log.info("User projection caught up with {} users in {} ms",
+                            userIds.size(), (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+        } catch (WakeupException | InterruptException ex) {
+            if (running) {
+                log.error("User projection consumer was interrupted while running", ex);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.error("User projection stopped, user validation falls back to auth-service", ex);
+        } finally {
+            caughtUp = false;
+            consumer = null;
+        }
+    }
+
+    // Waits for the topic to exist rather than letting the consumer auto-create it uncompacted
+    private Map<TopicPartition, Long> assignFromBeginning(Consumer<String, UserLifecycleEvent> consumer)
+            throws InterruptedException {
+        while (running) {
+            List<PartitionInfo> partitionInfos;
+            try {
+                partitionInfos = consumer.partitionsFor(KafkaTopics.USER_LIFECYCLE);
+            } catch (TimeoutException ex) {
+                partitionInfos = List.of();
+            }
+
+            if (partitionInfos != null && !partitionInfos.isEmpty()) {
+                List<TopicPartition> partitions = partitionInfos.stream()
+                        .map(info -> new TopicPartition(info.topic(), info.partition()))
+                        .toList();
+                consumer.assign(partitions);
+                consumer.seekToBeginning(partitions);
+                return consumer.endOffsets(partitions);
+            }
+
+            log.info("Topic {} not available yet, retrying in {} ms", KafkaTopics.USER_LIFECYCLE, TOPIC_RETRY_MS);
+            Thread.sleep(TOPIC_RETRY_MS);
+        }
+        return Map.of();
+    }
+
+    private static boolean reached(Consumer<?, ?> consumer, Map<TopicPartition, Long> replayTo) {
+        for (Map.Entry<TopicPartition, Long> end : replayTo.entrySet()) {
+            if (consumer.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void apply(ConsumerRecord<String, UserLifecycleEvent> record) {
+        UserLifecycleEvent event = record.value();
+        if (event == null) {
+            if (record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                log.warn("Skipping unreadable user event at {}-{}@{}",
+                        record.topic(), record.partition(), record.offset());
+                return;
+            }
+            // Tombstone: the user's history was removed from the topic altogether
+            removeByKey(record.key());
+            return;
+        }
+
+        switch (event) {
+            case UserRegistered registered -> userIds.add(registered.userId());
+            case UserDeleted deleted -> userIds.remove(deleted.userId());
+        }
+    }
+
+    private void removeByKey(String key) {
+        try {
+            userIds.remove(UUID.fromString(key));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            log.warn("Ignoring tombstone with non-uuid key {}", key);
+        }
+    }
+}
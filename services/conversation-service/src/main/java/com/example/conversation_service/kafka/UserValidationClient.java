@@ -0,0 +1,183 @@
+package com.example.conversation_service.kafka;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Request-reply to auth-service for user validation, guarded by a reply timeout and a circuit breaker.
+ * <p>
+ * The timeout follows the service: it is a multiple of the p99 of recent reply latencies, clamped between
+ * a floor and a ceiling, and stays at the ceiling until enough replies have been seen. After a run of
+ * consecutive failures (timeouts or send errors) the circuit opens and every call fails at once with
+ * {@link UserValidationUnavailableException}. While open, a scheduled probe sends one request with the
+ * ceiling timeout; its reply closes the circuit and restarts the latency window, since the old percentiles
+ * described a service that then stopped answering. Caller requests are never used as half-open trials.
+ */
+@Slf4j
+@Component
+public class UserValidationClient {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> kafkaTemplate;
+    private final long minTimeoutNanos;
+    private final long maxTimeoutNanos;
+    private final double timeoutMultiplier;
+    private final int failureThreshold;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int recorded;
+    private volatile long timeoutNanos;
+
+    private final Timer replyLatency;
+    private final Counter rejected;
+
+    public UserValidationClient(
+            ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${conversation.user-validation.min-timeout-ms:250}") long minTimeoutMs,
+            @Value("${conversation.user-validation.max-timeout-ms:5000}") long maxTimeoutMs,
+            @Value("${conversation.user-validation.timeout-multiplier:3}") double timeoutMultiplier,
+            @Value("${conversation.user-validation.failure-threshold:5}") int failureThreshold) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.minTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(minTimeoutMs);
+        this.maxTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeoutMs);
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.failureThreshold = failureThreshold;
+        this.timeoutNanos = maxTimeoutNanos;
+
+        this.replyLatency = Timer.builder("conversation.user_validation.latency")
+                .description("Time from sending a validation request to its reply")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("conversation.user_validation.rejected")
+                .description("Validation calls failed fast because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("conversation.user_validation.circuit_open", this, client -> client.state.get() == State.CLOSED ? 0 : 1)
+                .description("1 while validation calls are failed fast")
+                .register(meterRegistry);
+        Gauge.builder("conversation.user_validation.timeout", this, client -> client.timeoutNanos / 1_000_000.0)
+                .description("Reply timeout currently applied to validation requests")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<UserValidationResponse> validate(String correlationId, List<UUID> userIds) {
+        if (state.get() != State.CLOSED) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new UserValidationUnavailableException("User validation circuit is " + state.get()));
+        }
+        return send(correlationId, userIds, Duration.ofNanos(timeoutNanos))
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        onFailure(failure);
+                    }
+                });
+    }
+
+    @Scheduled(
+            initialDelayString = "${conversation.user-validation.probe-interval-ms:1000}",
+            fixedDelayString = "${conversation.user-validation.probe-interval-ms:1000}"
+    )
+    public void probe() {
+        if (!state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return;
+        }
+        // No user ids: any answer, even an error reply, shows auth-service is consuming and replying again
+        send(UUID.randomUUID().toString(), List.of(), Duration.ofNanos(maxTimeoutNanos))
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        log.debug("User validation probe failed: {}", failure.getMessage());
+                        state.set(State.OPEN);
+                        return;
+                    }
+                    resetWindow();
+                    consecutiveFailures.set(0);
+                    state.set(State.CLOSED);
+                    log.info("User validation probe answered, closing the circuit");
+                });
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    public Duration timeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    private CompletableFuture<UserValidationResponse> send(String correlationId, List<UUID> userIds, Duration timeout) {
+        ProducerRecord<String, UserValidationRequest> record = new ProducerRecord<>(
+                KafkaTopics.USER_EXISTENCE_REQUEST,
+                correlationId,
+                new UserValidationRequest(correlationId, userIds)
+        );
+
+        long start = System.nanoTime();
+        try {
+            // The template times the reply out itself, failing the future with KafkaReplyTimeoutException
+            return kafkaTemplate.sendAndReceive(record, timeout)
+                    .thenApply(reply -> onReply(reply, System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private UserValidationResponse onReply(ConsumerRecord<String, UserValidationResponse> reply, long latencyNanos) {
+        consecutiveFailures.set(0);
+        replyLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        recordLatency(latencyNanos);
+        return reply.value();
+    }
+
+    private void onFailure(Throwable failure) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= failureThreshold && state.compareAndSet(State.CLOSED, State.OPEN)) {
+            log.warn("User validation failed {} times in a row, opening the circuit: {}", failures, failure.getMessage());
+        }
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        latencies[recorded % WINDOW_SIZE] = latencyNanos;
+        recorded++;
+        if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_EVERY == 0) {
+            long[] window = Arrays.copyOf(latencies, Math.min(recorded, WINDOW_SIZE));
+            Arrays.sort(window);
+            long p99 = window[(int) Math.ceil(window.length * 0.99) - 1];
+            timeoutNanos = Math.clamp((long) (p99 * timeoutMultiplier), minTimeoutNanos, maxTimeoutNanos);
+        }
+    }
+
+    private synchronized void resetWindow() {
+        recorded = 0;
+        timeoutNanos = maxTimeoutNanos;
+    }
+}
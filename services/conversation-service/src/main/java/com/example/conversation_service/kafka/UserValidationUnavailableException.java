@@ -0,0 +1,9 @@
+package com.example.conversation_service.kafka;
+
+/** Raised without contacting auth-service while the {@link UserValidationClient} circuit is open. */
+public class UserValidationUnavailableException extends RuntimeException {
+
+    public UserValidationUnavailableException(String message) {
+        super(message);
+    }
+}
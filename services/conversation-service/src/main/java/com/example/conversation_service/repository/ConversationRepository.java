@@ -1,59 +1,49 @@
 package com.example.conversation_service.repository;
 
 import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Repository
-public interface ConversationRepository extends JpaRepository<Conversation, UUID> {
-
-    boolean existsByUser1IdAndUser2Id(UUID user1Id, UUID user2Id);
-
-    @Query("""
-        SELECT c FROM Conversation c 
-        WHERE (c.user1Id = :user1Id AND c.user2Id = :user2Id) 
-           OR (c.user1Id = :user2Id AND c.user2Id = :user1Id)
-        """)
-    Optional<Conversation> findConversationBetweenUsers(
-            @Param("user1Id") UUID user1Id,
-            @Param("user2Id") UUID user2Id
-    );
+public interface ConversationRepository extends JpaRepository<Conversation, UUID>, ConversationRepositoryCustom {
 
     @Query("""
-        SELECT COUNT(c) > 0 FROM Conversation c 
-        WHERE (c.user1Id = :user1Id AND c.user2Id = :user2Id) 
-           OR (c.user1Id = :user2Id AND c.user2Id = :user1Id)
+        SELECT new com.example.conversation_service.entity.ConversationKey(c.user1Id, c.user2Id)
+        FROM Conversation c
+        WHERE c.user1Id IN :user1Ids AND c.user2Id IN :user2Ids
         """)
-    boolean existsConversationBetweenUsers(
-            @Param("user1Id") UUID user1Id,
-            @Param("user2Id") UUID user2Id
+    List<ConversationKey> findKeysAmong(
+            @Param("user1Ids") Collection<UUID> user1Ids,
+            @Param("user2Ids") Collection<UUID> user2Ids
     );
 
-    @Query("""
-        SELECT c FROM Conversation c 
-        WHERE c.user1Id = :userId OR c.user2Id = :userId
-        """)
-    List<Conversation> findAllConversationsForUser(@Param("userId") UUID userId);
-
-    @Query(value = """
-        SELECT * FROM conversations 
-        WHERE (user1_id = :user1Id AND user2_id = :user2Id) 
-           OR (user1_id = :user2Id AND user2_id = :user1Id)
-        LIMIT 1
-        """, nativeQuery = true)
-    Optional<Conversation> nativeFindConversationBetweenUsers(
-            @Param("user1Id") UUID user1Id,
-            @Param("user2Id") UUID user2Id
-    );
+    // One query for the whole batch; the IN x IN match can over-select, so exact pairs are filtered here
+    default Set<ConversationKey> findExistingKeys(Collection<ConversationKey> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> user1Ids = keys.stream().map(ConversationKey::user1Id).collect(Collectors.toSet());
+        Set<UUID> user2Ids = keys.stream().map(ConversationKey::user2Id).collect(Collectors.toSet());
+        return findKeysAmong(user1Ids, user2Ids).stream()
+                .filter(keys::contains)
+                .collect(Collectors.toSet());
+    }
 
-    default boolean existsConversationBetweenUsersWithFlush(UUID user1Id, UUID user2Id) {
-        flush();
-        return existsConversationBetweenUsers(user1Id, user2Id);
+    // Hibernate batches the conversation inserts; they are flushed first so the membership rows can reference them
+    @Transactional
+    default List<Conversation> saveAllWithMembers(List<Conversation> conversations) {
+        List<Conversation> saved = saveAllAndFlush(conversations);
+        addMembers(saved);
+        return saved;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.example.conversation_service.repository;
+
+import com.example.conversation_service.dto.ConversationCursor;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ConversationRepositoryCustom {
+
+    /**
+     * Returns the conversation for {@code key}, inserting it first if the pair has none, in one statement.
+     * {@link GetOrCreateResult#created()} tells a new row apart from one that already existed.
+     */
+    GetOrCreateResult getOrCreate(ConversationKey key);
+
+    Optional<Conversation> findByKey(ConversationKey key);
+
+    /**
+     * Records both participants of conversations already inserted in the current transaction.
+     */
+    void addMembers(Collection<Conversation> conversations);
+
+    /**
+     * Up to {@code limit} of the user's conversations, newest first, starting after {@code after}
+     * (from the newest when null). Returned conversations carry the pair in stored order.
+     */
+    List<Conversation> findPageForUser(UUID userId, ConversationCursor after, int limit);
+
+    record GetOrCreateResult(Conversation conversation, boolean created) {
+    }
+}
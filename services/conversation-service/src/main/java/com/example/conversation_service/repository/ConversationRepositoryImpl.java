@@ -0,0 +1,141 @@
+package com.example.conversation_service.repository;
+
+import com.example.common.id.UuidV7;
+import com.example.conversation_service.dto.ConversationCursor;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ConversationRepositoryImpl implements ConversationRepositoryCustom {
+
+    // Both branches read the snapshot taken before the insert, so at most one of them returns a row:
+    // the inserted one, or the one whose unique (user1_id, user2_id) entry made the insert a no-op.
+    // Membership rows are only written for an inserted conversation
+    private static final String GET_OR_CREATE = """
+        WITH inserted AS (
+            INSERT INTO conversations (conversation_id, user1_id, user2_id, created_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (user1_id, user2_id) DO NOTHING
+            RETURNING conversation_id, user1_id, user2_id, created_at, true AS created
+        ), members AS (
+            INSERT INTO conversation_members (user_id, created_at, conversation_id, peer_id)
+            SELECT user1_id, created_at, conversation_id, user2_id FROM inserted
+            UNION ALL
+            SELECT user2_id, created_at, conversation_id, user1_id FROM inserted WHERE user2_id <> user1_id
+        )
+        SELECT conversation_id, user1_id, user2_id, created_at, created FROM inserted
+        UNION ALL
+        SELECT conversation_id, user1_id, user2_id, created_at, false FROM conversations
+        WHERE user1_id = ? AND user2_id = ?
+        """;
+
+    private static final String FIND_BY_KEY = """
+        SELECT conversation_id, user1_id, user2_id, created_at, false AS created
+        FROM conversations
+        WHERE user1_id = ? AND user2_id = ?
+        """;
+
+    private static final String INSERT_MEMBER = """
+        INSERT INTO conversation_members (user_id, created_at, conversation_id, peer_id)
+        VALUES (?, ?, ?, ?)
+        """;
+
+    // A range scan of conversation_members_pkey read backwards from the cursor
+    private static final String PAGE_FOR_USER = """
+        SELECT conversation_id, user_id, peer_id, created_at
+        FROM conversation_members
+        WHERE user_id = ? AND (created_at, conversation_id) < (?, ?)
+        ORDER BY created_at DESC, conversation_id DESC
+        LIMIT ?
+        """;
+
+    private static final String FIRST_PAGE_FOR_USER = """
+        SELECT conversation_id, user_id, peer_id, created_at
+        FROM conversation_members
+        WHERE user_id = ?
+        ORDER BY created_at DESC, conversation_id DESC
+        LIMIT ?
+        """;
+
+    // A pair committed by another transaction after the snapshot conflicts but is not yet visible;
+    // the next statement takes a new snapshot and sees it
+    private static final int ATTEMPTS = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public GetOrCreateResult getOrCreate(ConversationKey key) {
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            List<GetOrCreateResult> rows = jdbcTemplate.query(GET_OR_CREATE, ConversationRepositoryImpl::mapRow,
+                    UuidV7.next(), key.user1Id(), key.user2Id(), key.user1Id(), key.user2Id());
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
+        }
+        throw new IllegalStateException("Conversation between " + key.user1Id() + " and " + key.user2Id()
+                + " conflicted but could not be read");
+    }
+
+    @Override
+    public Optional<Conversation> findByKey(ConversationKey key) {
+        return jdbcTemplate.query(FIND_BY_KEY, ConversationRepositoryImpl::mapRow, key.user1Id(), key.user2Id())
+                .stream()
+                .findFirst()
+                .map(GetOrCreateResult::conversation);
+    }
+
+    @Override
+    public void addMembers(Collection<Conversation> conversations) {
+        List<Object[]> rows = new ArrayList<>(conversations.size() * 2);
+        for (Conversation conversation : conversations) {
+            OffsetDateTime createdAt = conversation.getCreatedAt().atOffset(ZoneOffset.UTC);
+            rows.add(new Object[]{conversation.getUser1Id(), createdAt, conversation.getId(), conversation.getUser2Id()});
+            if (!conversation.getUser2Id().equals(conversation.getUser1Id())) {
+                rows.add(new Object[]{conversation.getUser2Id(), createdAt, conversation.getId(), conversation.getUser1Id()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_MEMBER, rows);
+    }
+
+    @Override
+    public List<Conversation> findPageForUser(UUID userId, ConversationCursor after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(FIRST_PAGE_FOR_USER, ConversationRepositoryImpl::mapMember, userId, limit);
+        }
+        return jdbcTemplate.query(PAGE_FOR_USER, ConversationRepositoryImpl::mapMember,
+                userId, after.createdAt().atOffset(ZoneOffset.UTC), after.conversationId(), limit);
+    }
+
+    private static Conversation mapMember(ResultSet rs, int rowNum) throws SQLException {
+        ConversationKey key = ConversationKey.of(rs.getObject("user_id", UUID.class), rs.getObject("peer_id", UUID.class));
+        return Conversation.builder()
+                .id(rs.getObject("conversation_id", UUID.class))
+                .user1Id(key.user1Id())
+                .user2Id(key.user2Id())
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class).toInstant())
+                .build();
+    }
+
+    private static GetOrCreateResult mapRow(ResultSet rs, int rowNum) throws SQLException {
+        OffsetDateTime createdAt = rs.getObject("created_at", OffsetDateTime.class);
+        Conversation conversation = Conversation.builder()
+                .id(rs.getObject("conversation_id", UUID.class))
+                .user1Id(rs.getObject("user1_id", UUID.class))
+                .user2Id(rs.getObject("user2_id", UUID.class))
+                .createdAt(createdAt == null ? null : createdAt.toInstant())
+                .build();
+        return new GetOrCreateResult(conversation, rs.getBoolean("created"));
+    }
+}
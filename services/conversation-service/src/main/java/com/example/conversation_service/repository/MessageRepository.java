@@ -0,0 +1,79 @@
+package com.example.conversation_service.repository;
+
+import com.example.conversation_service.entity.Message;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class MessageRepository {
+
+    private static final String INSERT = """
+        INSERT INTO messages (conversation_id, message_id, sender_id, content, sent_at)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+
+    // Both pages are a backward range scan of messages_pkey that stops after LIMIT rows; never OFFSET
+    private static final String PAGE_BEFORE = """
+        SELECT conversation_id, message_id, sender_id, content, sent_at
+        FROM messages
+        WHERE conversation_id = ? AND message_id < ?
+        ORDER BY message_id DESC
+        LIMIT ?
+        """;
+
+    private static final String LATEST_PAGE = """
+        SELECT conversation_id, message_id, sender_id, content, sent_at
+        FROM messages
+        WHERE conversation_id = ?
+        ORDER BY message_id DESC
+        LIMIT ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores a batch of messages in one transaction, so one commit (one WAL flush) covers the whole batch.
+     * With {@code reWriteBatchedInserts} the driver sends the batch as multi-row INSERTs.
+     */
+    @Transactional
+    public void appendAll(List<Message> messages) {
+        jdbcTemplate.batchUpdate(INSERT, messages, messages.size(), (statement, message) -> {
+            statement.setObject(1, message.conversationId());
+            statement.setObject(2, message.id());
+            statement.setObject(3, message.senderId());
+            statement.setString(4, message.content());
+            statement.setObject(5, message.sentAt().atOffset(ZoneOffset.UTC));
+        });
+    }
+
+    /**
+     * Up to {@code limit} messages of the conversation, newest first, older than {@code before}
+     * (from the newest when null).
+     */
+    public List<Message> findPage(UUID conversationId, UUID before, int limit) {
+        if (before == null) {
+            return jdbcTemplate.query(LATEST_PAGE, MessageRepository::mapRow, conversationId, limit);
+        }
+        return jdbcTemplate.query(PAGE_BEFORE, MessageRepository::mapRow, conversationId, before, limit);
+    }
+
+    private static Message mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Message(
+                rs.getObject("conversation_id", UUID.class),
+                rs.getObject("message_id", UUID.class),
+                rs.getObject("sender_id", UUID.class),
+                rs.getString("content"),
+                rs.getObject("sent_at", OffsetDateTime.class).toInstant()
+        );
+    }
+}
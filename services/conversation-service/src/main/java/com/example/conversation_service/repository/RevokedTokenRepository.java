@@ -0,0 +1,55 @@
+package com.example.conversation_service.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read side of the token revocations auth-service writes to the shared Redis: {@code revoked_jti:<jti>} for a
+ * single logged-out token, {@code revoked_before:<subject>} with an epoch second for "log out everywhere", and
+ * the legacy {@code blacklist:<token>} for tokens issued before they carried a jti. All keys a token could be
+ * revoked under are read with one MGET.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RevokedTokenRepository {
+
+    private static final String REVOKED_JTI_PREFIX = "revoked_jti:";
+    private static final String REVOKED_BEFORE_PREFIX = "revoked_before:";
+    private static final String BLACKLIST_PREFIX = "blacklist:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public boolean isRevoked(String token, String jti, String subject, Instant issuedAt) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(jti != null ? REVOKED_JTI_PREFIX + jti : BLACKLIST_PREFIX + token);
+        if (subject != null) {
+            keys.add(REVOKED_BEFORE_PREFIX + subject);
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+
+        if (values.get(0) != null) {
+            return true;
+        }
+        String revokedBefore = values.size() > 1 ? values.get(1) : null;
+        return revokedBefore != null && issuedAt != null && issuedAt.getEpochSecond() <= epochSecond(revokedBefore);
+    }
+
+    // auth-service writes values with Jackson default typing, so a long may arrive as ["java.lang.Long",1700000000]
+    private long epochSecond(String value) {
+        try {
+            JsonNode node = objectMapper.readTree(value);
+            return (node.isArray() ? node.get(node.size() - 1) : node).asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable revocation watermark " + value, e);
+        }
+    }
+}
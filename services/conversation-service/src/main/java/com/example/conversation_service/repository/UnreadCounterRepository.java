@@ -0,0 +1,51 @@
+package com.example.conversation_service.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Unread message counts per user and conversation, kept in Redis so every node sees the same numbers.
+ * Each user has one hash, {@code unread:<userId>}, with a field per conversation holding its count:
+ * a write is one HINCRBY, a read acknowledgement one HDEL, and the counts of a whole inbox page one HMGET.
+ * A conversation without a field has no unread messages.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UnreadCounterRepository {
+
+    private static final String KEY_PREFIX = "unread:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public void increment(UUID userId, UUID conversationId) {
+        hash().increment(KEY_PREFIX + userId, conversationId.toString(), 1);
+    }
+
+    public void reset(UUID userId, UUID conversationId) {
+        hash().delete(KEY_PREFIX + userId, conversationId.toString());
+    }
+
+    // In the order asked for, 0 for conversations with nothing unread
+    public Map<UUID, Long> counts(UUID userId, List<UUID> conversationIds) {
+        List<String> fields = conversationIds.stream().map(UUID::toString).toList();
+        List<String> values = hash().multiGet(KEY_PREFIX + userId, fields);
+
+        Map<UUID, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < conversationIds.size(); i++) {
+            String value = values.get(i);
+            counts.put(conversationIds.get(i), value == null ? 0L : Long.parseLong(value));
+        }
+        return counts;
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return redisTemplate.opsForHash();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.conversation_service.security;
+
+import com.example.conversation_service.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checks access tokens issued by auth-service, with the same shared HMAC secret, and returns the user id
+ * from their {@code uid} claim. Tokens issued before that claim existed are rejected. Logout revokes access
+ * tokens too, singly by jti or all of a user's at once, so every verification also checks the revocations
+ * auth-service keeps in Redis; if Redis cannot answer, the token is refused rather than trusted.
+ */
+@Slf4j
+@Component
+public class AccessTokenVerifier {
+
+    static final String USER_ID_CLAIM = "uid";
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtParser parser;
+    private final RevokedTokenRepository revokedTokens;
+
+    public AccessTokenVerifier(@Value("${jwt.secret}") String secret, RevokedTokenRepository revokedTokens) {
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.revokedTokens = revokedTokens;
+    }
+
+    // The user id behind an "Authorization: Bearer <token>" header value; empty when it is missing or invalid
+    public Optional<UUID> userIdFromBearer(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return Optional.empty();
+        }
+        return userId(authorization.substring(BEARER.length()));
+    }
+
+    public Optional<UUID> userId(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String userId = claims.get(USER_ID_CLAIM, String.class);
+            if (userId == null || revoked(token, claims)) {
+                return Optional.empty();
+            }
+            return Optional.of(UUID.fromString(userId));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean revoked(String token, Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        try {
+            return revokedTokens.isRevoked(
+                    token, claims.getId(), claims.getSubject(), issuedAt == null ? null : issuedAt.toInstant());
+        } catch (RuntimeException e) {
+            log.warn("Token revocation could not be checked, refusing the token: {}", e.getMessage());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.conversation_service.service;
+
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import com.example.conversation_service.repository.ConversationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded cache of the conversation between two users, keyed by the ordered pair.
+ * "No conversation" is cached too, with a much shorter TTL. The creating instance replaces the pair's
+ * entry right away; other instances can report a new pair as absent for at most the negative TTL.
+ */
+@Component
+public class ConversationPairCache {
+
+    private static final Entry ABSENT = new Entry(null, null);
+
+    private final ConversationRepository conversationRepo;
+    private final Cache<PairKey, Entry> pairs;
+
+    @Autowired
+    public ConversationPairCache(ConversationRepository conversationRepo,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${conversation.pair-cache.max-size:100000}") long maxSize,
+                                 @Value("${conversation.pair-cache.ttl-ms:600000}") long ttlMs,
+                                 @Value("${conversation.pair-cache.negative-ttl-ms:5000}") long negativeTtlMs) {
+        this(conversationRepo, meterRegistry, maxSize, ttlMs, negativeTtlMs, Ticker.systemTicker());
+    }
+
+    ConversationPairCache(ConversationRepository conversationRepo,
+                          MeterRegistry meterRegistry,
+                          long maxSize,
+                          long ttlMs,
+                          long negativeTtlMs,
+                          Ticker ticker) {
+        this.conversationRepo = conversationRepo;
+        this.pairs = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new PairExpiry(ttlMs * 1_000_000, negativeTtlMs * 1_000_000))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pairs, "conversation_pairs");
+    }
+
+    public Optional<Conversation> get(ConversationKey key) {
+        Entry entry = pairs.get(PairKey.of(key), ignored -> conversationRepo.findByKey(key)
+                .map(conversation -> new Entry(conversation.getId(), conversation.getCreatedAt()))
+                .orElse(ABSENT));
+        return entry == ABSENT ? Optional.empty() : Optional.of(entry.toConversation(key));
+    }
+
+    // Called with the row get-or-create returned, new or existing, so a cached "absent" never outlives it here
+    public void put(Conversation conversation) {
+        pairs.put(PairKey.of(ConversationKey.of(conversation.getUser1Id(), conversation.getUser2Id())),
+                new Entry(conversation.getId(), conversation.getCreatedAt()));
+    }
+
+    /** Both ids as four longs: one small object per key instead of a record holding two {@link UUID}s. */
+    record PairKey(long user1Msb, long user1Lsb, long user2Msb, long user2Lsb) {
+
+        static PairKey of(ConversationKey key) {
+            return new PairKey(
+                    key.user1Id().getMostSignificantBits(), key.user1Id().getLeastSignificantBits(),
+                    key.user2Id().getMostSignificantBits(), key.user2Id().getLeastSignificantBits());
+        }
+    }
+
+    record Entry(UUID conversationId, Instant createdAt) {
+
+        Conversation toConversation(ConversationKey key) {
+            return Conversation.builder()
+                    .id(conversationId)
+                    .user1Id(key.user1Id())
+                    .user2Id(key.user2Id())
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+
+    private record PairExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<PairKey, Entry> {
+
+        @Override
+        public long expireAfterCreate(PairKey key, Entry entry, long currentTime) {
+            return entry == ABSENT ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(PairKey key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(PairKey key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
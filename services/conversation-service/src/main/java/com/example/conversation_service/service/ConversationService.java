@@ -1,10 +1,21 @@
 package com.example.conversation_service.service;
 
 import com.example.common.dto.ApiResponse;
+import com.example.conversation_service.dto.ConversationPage;
+import com.example.conversation_service.dto.ConversationPairResult;
 import com.example.conversation_service.dto.ConversationResponse;
+import com.example.conversation_service.dto.CreateConversationRequest;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface ConversationService {
-    ApiResponse<ConversationResponse> createConversation(UUID user1Id, UUID user2Id);
+    CompletableFuture<ApiResponse<ConversationResponse>> createConversation(UUID user1Id, UUID user2Id);
+
+    CompletableFuture<ApiResponse<List<ConversationPairResult>>> createConversations(List<CreateConversationRequest> pairs);
+
+    ApiResponse<ConversationResponse> findConversation(UUID user1Id, UUID user2Id);
+
+    ApiResponse<ConversationPage> listConversations(UUID userId, String after, int limit);
 
 }
@@ -1,127 +1,364 @@
 package com.example.conversation_service.service;
 
-import com.example.common.constants.KafkaTopics;
 import com.example.common.dto.ApiResponse;
-import com.example.common.dto.UserValidationRequest;
 import com.example.common.dto.UserValidationResponse;
+import com.example.conversation_service.dto.ConversationCursor;
+import com.example.conversation_service.dto.ConversationPage;
+import com.example.conversation_service.dto.ConversationPairResult;
 import com.example.conversation_service.dto.ConversationResponse;
+import com.example.conversation_service.dto.CreateConversationRequest;
 import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import com.example.conversation_service.kafka.UserProjection;
+import com.example.conversation_service.kafka.UserValidationClient;
+import com.example.conversation_service.kafka.UserValidationUnavailableException;
 import com.example.conversation_service.repository.ConversationRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.conversation_service.repository.ConversationRepositoryCustom.GetOrCreateResult;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
-import org.springframework.kafka.requestreply.RequestReplyFuture;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ConversationServiceImpl implements ConversationService {
-    private final ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> kafkaTemplate;
+    private static final String PATH = "api/conversations";
+    private static final String BULK_PATH = "api/conversations/bulk";
+    private static final String BETWEEN_PATH = "api/conversations/between";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final UserValidationClient validationClient;
     private final ConversationRepository conversationRepo;
+    private final ConversationPairCache pairCache;
+    private final UserProjection userProjection;
+    private final AsyncTaskExecutor taskExecutor;
+
+    // Named: @EnableScheduling adds a taskScheduler bean, which is an AsyncTaskExecutor too
+    public ConversationServiceImpl(UserValidationClient validationClient,
+                                   ConversationRepository conversationRepo,
+                                   ConversationPairCache pairCache,
+                                   UserProjection userProjection,
+                                   @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.validationClient = validationClient;
+        this.conversationRepo = conversationRepo;
+        this.pairCache = pairCache;
+        this.userProjection = userProjection;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public CompletableFuture<ApiResponse<ConversationResponse>> createConversation(UUID user1Id, UUID user2Id) {
+        String correlationId = UUID.randomUUID().toString();
+
+        // The Kafka reply completes on the reply container's thread, so the database work hops to the task executor
+        return validateUsers(correlationId, List.of(user1Id, user2Id))
+                .thenApplyAsync(validationResponse -> createIfValid(validationResponse, user1Id, user2Id), taskExecutor)
+                .exceptionally(failure -> failureResponse(failure, PATH));
+    }
 
+    /**
+     * Validates every distinct user id of the batch in one round trip, finds the pairs that already have
+     * a conversation with one query and inserts the rest, with their membership rows, in one batched transaction. If a
+     * concurrent request wins one of those pairs in between, the batch is settled pair by pair with get-or-create.
+     */
     @Override
-    public ApiResponse<ConversationResponse> createConversation(UUID user1Id, UUID user2Id) {
+    public CompletableFuture<ApiResponse<List<ConversationPairResult>>> createConversations(
+            List<CreateConversationRequest> pairs) {
         String correlationId = UUID.randomUUID().toString();
-        final String path = "api/conversations";
+        List<UUID> userIds = pairs.stream()
+                .flatMap(pair -> Stream.of(pair.getUser1Id(), pair.getUser2Id()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        return validateUsers(correlationId, userIds)
+                .thenApplyAsync(validationResponse -> createAllValid(validationResponse, pairs), taskExecutor)
+                .exceptionally(failure -> failureResponse(failure, BULK_PATH));
+    }
 
+    @Override
+    public ApiResponse<ConversationResponse> findConversation(UUID user1Id, UUID user2Id) {
+        return pairCache.get(ConversationKey.of(user1Id, user2Id))
+                .map(conversation -> ApiResponse.<ConversationResponse>builder()
+                        .data(toResponse(conversation))
+                        .timestamp(LocalDateTime.now())
+                        .status(HttpStatus.OK.value())
+                        .reason(HttpStatus.OK.getReasonPhrase())
+                        .message("Conversation found")
+                        .path(BETWEEN_PATH)
+                        .build())
+                .orElseGet(() -> buildErrorResponse(
+                        HttpStatus.NOT_FOUND,
+                        "Conversation not found",
+                        "No conversation between these users",
+                        BETWEEN_PATH
+                ));
+    }
+
+    /**
+     * Keyset pagination over the user's membership rows: each page is one index range scan that starts
+     * at the cursor, however many conversations the user has. One extra row is read to tell whether
+     * another page follows.
+     */
+    @Override
+    public ApiResponse<ConversationPage> listConversations(UUID userId, String after, int limit) {
+        ConversationCursor cursor;
         try {
-            ProducerRecord<String, UserValidationRequest> record = new ProducerRecord<>(
-                    KafkaTopics.USER_EXISTENCE_REQUEST,
-                    correlationId,
-                    new UserValidationRequest(correlationId, List.of(user1Id, user2Id))
+            cursor = after == null || after.isBlank() ? null : ConversationCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid cursor", "Malformed 'after' cursor", PATH);
+        }
+
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<Conversation> rows = conversationRepo.findPageForUser(userId, cursor, pageSize + 1);
+        List<Conversation> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            Conversation last = page.get(page.size() - 1);
+            nextCursor = new ConversationCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return ApiResponse.<ConversationPage>builder()
+                .data(ConversationPage.builder()
+                        .conversations(page.stream().map(ConversationServiceImpl::toResponse).toList())
+                        .nextCursor(nextCursor)
+                        .build())
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.OK.value())
+                .reason(HttpStatus.OK.getReasonPhrase())
+                .message("Conversations retrieved successfully")
+                .path(PATH)
+                .build();
+    }
+
+    private ApiResponse<ConversationResponse> createIfValid(
+            UserValidationResponse validationResponse,
+            UUID user1Id,
+            UUID user2Id
+    ) {
+        if (!validationResponse.isValid()) {
+            return buildErrorResponse(
+                    HttpStatus.BAD_REQUEST,
+                    "Invalid user(s)",
+                    validationResponse.message(),
+                    PATH
             );
+        }
+
+        // One statement decides: the unique pair constraint turns a second insert into the existing row
+        GetOrCreateResult result = conversationRepo.getOrCreate(ConversationKey.of(user1Id, user2Id));
+        pairCache.put(result.conversation());
 
-            RequestReplyFuture<String, UserValidationRequest, UserValidationResponse> future =
-                    kafkaTemplate.sendAndReceive(record);
+        if (!result.created()) {
+            return buildErrorResponse(
+                    HttpStatus.CONFLICT,
+                    "Conversation exists",
+                    "Conversation between these users already exists",
+                    PATH
+            );
+        }
 
-            ConsumerRecord<String, UserValidationResponse> responseRecord =
-                    future.get(5, TimeUnit.SECONDS);
+        return ApiResponse.<ConversationResponse>builder()
+                .data(toResponse(result.conversation()))
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CREATED.value())
+                .reason(HttpStatus.CREATED.getReasonPhrase())
+                .message("Conversation created successfully")
+                .path(PATH)
+                .build();
+    }
+
+    private ApiResponse<List<ConversationPairResult>> createAllValid(
+            UserValidationResponse validationResponse,
+            List<CreateConversationRequest> pairs
+    ) {
+        Set<UUID> missingUserIds = validationResponse.missingUserIds() == null
+                ? Set.of()
+                : new HashSet<>(validationResponse.missingUserIds());
+        // An invalid answer that names no ids (an error reply) cannot be pinned on particular pairs
+        boolean attributable = validationResponse.isValid() || !missingUserIds.isEmpty();
+
+        ConversationPairResult[] results = new ConversationPairResult[pairs.size()];
+        Map<ConversationKey, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            CreateConversationRequest pair = pairs.get(i);
+            if (pair.getUser1Id() == null || pair.getUser2Id() == null) {
+                results[i] = pairResult(pair, HttpStatus.BAD_REQUEST, "user1Id and user2Id are required", null);
+            } else if (!attributable) {
+                results[i] = pairResult(pair, HttpStatus.BAD_REQUEST, validationResponse.message(), null);
+            } else if (missingUserIds.contains(pair.getUser1Id()) || missingUserIds.contains(pair.getUser2Id())) {
+                results[i] = pairResult(pair, HttpStatus.BAD_REQUEST, "Missing users", null);
+            } else if (candidates.putIfAbsent(ConversationKey.of(pair.getUser1Id(), pair.getUser2Id()), i) != null) {
+                results[i] = pairResult(pair, HttpStatus.CONFLICT, "Pair repeated in this request", null);
+            }
+        }
 
-            UserValidationResponse validationResponse = responseRecord.value();
-            if (!validationResponse.isValid()) {
-                return buildErrorResponse(
-                        HttpStatus.BAD_REQUEST,
-                        "Invalid user(s)",
-                        validationResponse.message(),
-                        path
-                );
+        Set<ConversationKey> existingKeys = conversationRepo.findExistingKeys(candidates.keySet());
+        List<Map.Entry<ConversationKey, Integer>> toCreate = new ArrayList<>();
+        for (Map.Entry<ConversationKey, Integer> candidate : candidates.entrySet()) {
+            if (existingKeys.contains(candidate.getKey())) {
+                results[candidate.getValue()] = pairResult(pairs.get(candidate.getValue()),
+                        HttpStatus.CONFLICT, "Conversation between these users already exists", null);
+            } else {
+                toCreate.add(candidate);
             }
+        }
+
+        int created = toCreate.isEmpty() ? 0 : saveAllOrSettleEach(toCreate, pairs, results);
 
-            UUID orderedUser1Id = user1Id.compareTo(user2Id) < 0 ? user1Id : user2Id;
-            UUID orderedUser2Id = user1Id.compareTo(user2Id) < 0 ? user2Id : user1Id;
+        return ApiResponse.<List<ConversationPairResult>>builder()
+                .data(List.of(results))
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.OK.value())
+                .reason(HttpStatus.OK.getReasonPhrase())
+                .message("Created " + created + " of " + pairs.size() + " conversations")
+                .path(BULK_PATH)
+                .build();
+    }
 
-            if (conversationRepo.existsByUser1IdAndUser2Id(orderedUser1Id, orderedUser2Id)) {
-                return buildErrorResponse(
-                        HttpStatus.CONFLICT,
-                        "Conversation exists",
-                        "Conversation between these users already exists",
-                        path
-                );
+    private int saveAllOrSettleEach(
+            List<Map.Entry<ConversationKey, Integer>> toCreate,
+            List<CreateConversationRequest> pairs,
+            ConversationPairResult[] results
+    ) {
+        List<Conversation> saved;
+        try {
+            saved = conversationRepo.saveAllWithMembers(
+                    toCreate.stream().map(entry -> newConversation(entry.getKey())).toList());
+        } catch (DataIntegrityViolationException e) {
+            // Another request created one of these pairs after the lookup and the batch rolled back as a whole
+            log.info("Bulk insert hit an existing pair, creating {} pairs one by one", toCreate.size());
+            int created = 0;
+            for (Map.Entry<ConversationKey, Integer> entry : toCreate) {
+                GetOrCreateResult result = conversationRepo.getOrCreate(entry.getKey());
+                pairCache.put(result.conversation());
+                results[entry.getValue()] = result.created()
+                        ? pairResult(pairs.get(entry.getValue()), HttpStatus.CREATED,
+                                "Conversation created successfully", toResponse(result.conversation()))
+                        : pairResult(pairs.get(entry.getValue()), HttpStatus.CONFLICT,
+                                "Conversation between these users already exists", null);
+                created += result.created() ? 1 : 0;
             }
+            return created;
+        }
+
+        for (int i = 0; i < saved.size(); i++) {
+            int index = toCreate.get(i).getValue();
+            pairCache.put(saved.get(i));
+            results[index] = pairResult(
+                    pairs.get(index), HttpStatus.CREATED, "Conversation created successfully", toResponse(saved.get(i)));
+        }
+        return saved.size();
+    }
 
-            Conversation conversation = Conversation.builder()
-                    .user1Id(orderedUser1Id)
-                    .user2Id(orderedUser2Id)
-                    .build();
+    private static Conversation newConversation(ConversationKey key) {
+        return Conversation.builder()
+                .user1Id(key.user1Id())
+                .user2Id(key.user2Id())
+                .build();
+    }
 
-            Conversation savedConversation = conversationRepo.save(conversation);
+    private static ConversationResponse toResponse(Conversation conversation) {
+        return new ConversationResponse(
+                conversation.getId(),
+                conversation.getUser1Id(),
+                conversation.getUser2Id(),
+                conversation.getCreatedAt()
+        );
+    }
 
-            ConversationResponse responseData = new ConversationResponse(
-                    savedConversation.getId(),
-                    savedConversation.getUser1Id(),
-                    savedConversation.getUser2Id(),
-                    savedConversation.getCreatedAt()
+    private static ConversationPairResult pairResult(
+            CreateConversationRequest pair,
+            HttpStatus status,
+            String message,
+            ConversationResponse conversation
+    ) {
+        return ConversationPairResult.builder()
+                .user1Id(pair.getUser1Id())
+                .user2Id(pair.getUser2Id())
+                .status(status.value())
+                .message(message)
+                .conversation(conversation)
+                .build();
+    }
+
+    /**
+     * In-process once the user projection has replayed the lifecycle topic, but a projection hit is the only
+     * answer it can give: a miss may be a user whose event was never published (the topic starts empty on
+     * existing deployments) or has not arrived yet, so the ids it does not know still go to auth-service.
+     */
+    private CompletableFuture<UserValidationResponse> validateUsers(String correlationId, List<UUID> userIds) {
+        if (!userProjection.isCaughtUp()) {
+            return validationClient.validate(correlationId, userIds);
+        }
+
+        List<UUID> unknownUserIds = userProjection.missing(userIds);
+        if (unknownUserIds.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new UserValidationResponse(correlationId, true, "All users exist", List.of()));
+        }
+        // Every other id was found locally, so auth-service's verdict on the unknown ones is the verdict on all
+        return validationClient.validate(correlationId, unknownUserIds);
+    }
+
+    private <T> ApiResponse<T> failureResponse(Throwable failure, String path) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+
+        if (cause instanceof UserValidationUnavailableException) {
+            // Logged once by the client when the circuit opened, not per rejected request
+            return buildErrorResponse(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Validation service unavailable",
+                    "User validation service is not responding, try again later",
+                    path
             );
-            return ApiResponse.<ConversationResponse>builder()
-                    .data(responseData)
-                    .timestamp(LocalDateTime.now())
-                    .status(HttpStatus.CREATED.value())
-                    .reason(HttpStatus.CREATED.getReasonPhrase())
-                    .message("Conversation created successfully")
-                    .path(path)
-                    .build();
-
-
-        } catch (TimeoutException e) {
-            log.error("Kafka timeout validating users: {}", e.getMessage());
+        }
+
+        if (cause instanceof KafkaReplyTimeoutException) {
+            log.error("Kafka timeout validating users: {}", cause.getMessage());
             return buildErrorResponse(
                     HttpStatus.GATEWAY_TIMEOUT,
                     "Validation service timeout",
                     "User validation service did not respond",
                     path
             );
-        } catch (Exception e) {
-            log.error("Conversation creation failed: {}", e.getMessage());
-            return buildErrorResponse(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Internal server error",
-                    e.getMessage(),
-                    path
-            );
         }
-    }
-
 
+        log.error("Conversation creation failed: {}", cause.getMessage());
+        return buildErrorResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Internal server error",
+                cause.getMessage(),
+                path
+        );
+    }
 
-    private ApiResponse<ConversationResponse> buildErrorResponse(
+    private static <T> ApiResponse<T> buildErrorResponse(
             HttpStatus status,
             String reason,
             String message,
             String path
     ) {
-        return ApiResponse.<ConversationResponse>builder()
+        return ApiResponse.<T>builder()
                 .timestamp(LocalDateTime.now())
                 .status(status.value())
                 .reason(reason)
@@ -0,0 +1,26 @@
+package com.example.conversation_service.service;
+
+import com.example.common.dto.ApiResponse;
+import com.example.conversation_service.dto.ChatFrame;
+import com.example.conversation_service.dto.MessagePage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface MessageService {
+    /**
+     * Validates and queues a message; the future completes once it is stored and pushed to the live sessions.
+     * Invalid sends are refused with {@link IllegalArgumentException} before anything is queued.
+     */
+    CompletableFuture<ChatFrame.Message> send(UUID senderId, ChatFrame.Send send);
+
+    // Only the conversation's participants may read it; anyone else gets 403
+    ApiResponse<MessagePage> history(UUID userId, UUID conversationId, UUID before, int limit);
+
+    // Clears the user's unread count for the conversation; refused with IllegalArgumentException for non-participants
+    void markRead(UUID userId, UUID conversationId);
+
+    ApiResponse<Map<UUID, Long>> unreadCounts(UUID userId, List<UUID> conversationIds);
+}
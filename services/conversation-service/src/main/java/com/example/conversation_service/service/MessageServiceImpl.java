@@ -0,0 +1,255 @@
+package com.example.conversation_service.service;
+
+import com.example.common.dto.ApiResponse;
+import com.example.common.id.UuidV7;
+import com.example.conversation_service.dto.ChatFrame;
+import com.example.conversation_service.dto.MessagePage;
+import com.example.conversation_service.dto.MessageResponse;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.Message;
+import com.example.conversation_service.kafka.ChatMessageRelay;
+import com.example.conversation_service.repository.ConversationRepository;
+import com.example.conversation_service.repository.MessageRepository;
+import com.example.conversation_service.repository.UnreadCounterRepository;
+import com.example.conversation_service.websocket.SessionRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts a chat message from a connected participant, stores it through the {@link MessageWriter} group commit
+ * and, once it is durable, pushes it to the live sessions of both participants on this node and hands it to the
+ * {@link ChatMessageRelay} for sessions on other nodes; the sender's copy is their acknowledgement.
+ * The frame is serialized once and the same bytes go to every session and to Kafka.
+ * Participants are looked up once per conversation and kept: a conversation's pair never changes.
+ * Every stored message adds one to the recipient's unread count, which a read acknowledgement clears.
+ */
+@Slf4j
+@Service
+public class MessageServiceImpl implements MessageService {
+    private static final String PATH = "api/conversations/{id}/messages";
+    private static final String UNREAD_PATH = "api/conversations/unread";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_UNREAD_BATCH = 500;
+
+    private final ConversationRepository conversationRepo;
+    private final MessageRepository messageRepo;
+    private final MessageWriter messageWriter;
+    private final UnreadCounterRepository unreadCounters;
+    private final AsyncTaskExecutor taskExecutor;
+    private final SessionRegistry sessionRegistry;
+    private final ChatMessageRelay relay;
+    private final ObjectMapper objectMapper;
+    private final int maxContentLength;
+    private final Cache<UUID, Conversation> participants;
+    private final Timer fanout;
+
+    public MessageServiceImpl(ConversationRepository conversationRepo,
+                              MessageRepository messageRepo,
+                              MessageWriter messageWriter,
+                              UnreadCounterRepository unreadCounters,
+                              @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                              SessionRegistry sessionRegistry,
+                              ChatMessageRelay relay,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${conversation.messages.max-content-length:2000}") int maxContentLength,
+                              @Value("${conversation.participants-cache.max-size:100000}") long participantsCacheSize) {
+        this.conversationRepo = conversationRepo;
+        this.messageRepo = messageRepo;
+        this.messageWriter = messageWriter;
+        this.unreadCounters = unreadCounters;
+        this.taskExecutor = taskExecutor;
+        this.sessionRegistry = sessionRegistry;
+        this.relay = relay;
+        this.objectMapper = objectMapper;
+        this.maxContentLength = maxContentLength;
+        this.participants = Caffeine.newBuilder()
+                .maximumSize(participantsCacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, participants, "conversation_participants");
+        this.fanout = Timer.builder("conversation.websocket.fanout")
+                .description("Time to hand one message to every local session of both participants")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<ChatFrame.Message> send(UUID senderId, ChatFrame.Send send) {
+        if (send.conversationId() == null) {
+            throw new IllegalArgumentException("conversationId is required");
+        }
+        if (send.content() == null || send.content().isBlank() || send.content().length() > maxContentLength) {
+            throw new IllegalArgumentException("content must be 1 to " + maxContentLength + " characters");
+        }
+        // Postgres text cannot hold NUL, and a row it refuses would cost the whole group commit a retry
+        if (send.content().indexOf('\u0000') >= 0) {
+            throw new IllegalArgumentException("content must not contain NUL characters");
+        }
+
+        Conversation conversation = conversation(send.conversationId());
+        UUID recipientId = conversation.getOtherParticipant(senderId);
+
+        // The id's timestamp is the send time, so history order and sentAt never disagree
+        UUID id = UuidV7.next();
+        Message message = new Message(conversation.getId(), id, senderId, send.content(), UuidV7.timestamp(id));
+
+        // The writer completes on its own thread; fan-out hops to the task executor so it never delays a commit
+        return messageWriter.append(message).thenApplyAsync(stored -> {
+            countUnread(recipientId, senderId, stored.conversationId());
+            ChatFrame.Message frame = new ChatFrame.Message(
+                    stored.id(), stored.conversationId(), senderId, stored.content(), stored.sentAt());
+            deliver(frame, senderId, recipientId);
+            return frame;
+        }, taskExecutor);
+    }
+
+    /**
+     * Keyset pagination over the conversation's messages: each page is one range scan of the primary key
+     * that starts at the {@code before} id, however deep in the history it is. One extra row is read to
+     * tell whether an older page follows.
+     */
+    @Override
+    public ApiResponse<MessagePage> history(UUID userId, UUID conversationId, UUID before, int limit) {
+        // An unknown conversation looks the same as someone else's, so ids cannot be probed
+        Conversation conversation = cachedConversation(conversationId);
+        if (conversation == null || !conversation.involvesUser(userId)) {
+            return buildErrorResponse(
+                    HttpStatus.FORBIDDEN, "Not a participant", "Only participants can read this conversation", PATH);
+        }
+
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<Message> rows = messageRepo.findPage(conversationId, before, pageSize + 1);
+        List<Message> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+        return ApiResponse.<MessagePage>builder()
+                .data(MessagePage.builder()
+                        .messages(page.stream().map(MessageServiceImpl::toResponse).toList())
+                        .nextBefore(rows.size() > pageSize ? page.get(page.size() - 1).id() : null)
+                        .build())
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.OK.value())
+                .reason(HttpStatus.OK.getReasonPhrase())
+                .message("Messages retrieved successfully")
+                .path(PATH)
+                .build();
+    }
+
+    @Override
+    public void markRead(UUID userId, UUID conversationId) {
+        if (conversationId == null) {
+            throw new IllegalArgumentException("conversationId is required");
+        }
+        conversation(conversationId).getOtherParticipant(userId);
+        try {
+            unreadCounters.reset(userId, conversationId);
+        } catch (RuntimeException e) {
+            log.warn("Unread count of conversation {} not reset: {}", conversationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Counts for a whole conversation list in one Redis round trip; conversations with nothing unread
+     * (or that the user is not in) count 0.
+     */
+    @Override
+    public ApiResponse<Map<UUID, Long>> unreadCounts(UUID userId, List<UUID> conversationIds) {
+        if (conversationIds.size() > MAX_UNREAD_BATCH) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Too many conversations",
+                    "At most " + MAX_UNREAD_BATCH + " conversations per request", UNREAD_PATH);
+        }
+
+        return ApiResponse.<Map<UUID, Long>>builder()
+                .data(conversationIds.isEmpty() ? Map.of() : unreadCounters.counts(userId, conversationIds))
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.OK.value())
+                .reason(HttpStatus.OK.getReasonPhrase())
+                .message("Unread counts retrieved successfully")
+                .path(UNREAD_PATH)
+                .build();
+    }
+
+    private Conversation conversation(UUID conversationId) {
+        Conversation conversation = cachedConversation(conversationId);
+        if (conversation == null) {
+            throw new IllegalArgumentException("Conversation not found");
+        }
+        return conversation;
+    }
+
+    // Null when there is no such conversation; misses are not cached
+    private Conversation cachedConversation(UUID conversationId) {
+        return participants.get(conversationId, id -> conversationRepo.findById(id).orElse(null));
+    }
+
+    // The message is already stored; a count that Redis missed must not fail the send
+    private void countUnread(UUID recipientId, UUID senderId, UUID conversationId) {
+        if (recipientId.equals(senderId)) {
+            return;
+        }
+        try {
+            unreadCounters.increment(recipientId, conversationId);
+        } catch (RuntimeException e) {
+            log.warn("Unread count of conversation {} not incremented: {}", conversationId, e.getMessage());
+        }
+    }
+
+    private static MessageResponse toResponse(Message message) {
+        return MessageResponse.builder()
+                .id(message.id())
+                .conversationId(message.conversationId())
+                .senderId(message.senderId())
+                .content(message.content())
+                .sentAt(message.sentAt())
+                .build();
+    }
+
+    private void deliver(ChatFrame.Message message, UUID senderId, UUID recipientId) {
+        byte[] json = toJson(message);
+        TextMessage frame = new TextMessage(json);
+        long start = System.nanoTime();
+        sessionRegistry.deliver(recipientId, frame);
+        if (!recipientId.equals(senderId)) {
+            sessionRegistry.deliver(senderId, frame);
+        }
+        fanout.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        relay.publish(message.conversationId(), senderId, recipientId, json);
+    }
+
+    private byte[] toJson(ChatFrame frame) {
+        try {
+            return objectMapper.writerFor(ChatFrame.class).writeValueAsBytes(frame);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Chat frame not serializable", e);
+        }
+    }
+
+    private static <T> ApiResponse<T> buildErrorResponse(HttpStatus status, String reason, String message, String path) {
+        return ApiResponse.<T>builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .reason(reason)
+                .message(message)
+                .path(path)
+                .build();
+    }
+}
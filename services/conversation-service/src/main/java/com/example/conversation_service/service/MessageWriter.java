@@ -0,0 +1,199 @@
+package com.example.conversation_service.service;
+
+import com.example.conversation_service.entity.Message;
+import com.example.conversation_service.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for chat messages. Sends are queued in a bounded ring buffer and one writer thread stores
+ * them in batches: a batch is flushed once it holds {@code max-batch-size} messages or {@code flush-interval-ms}
+ * after its first message, whichever comes first, as one transaction. The future returned by {@link #append}
+ * completes only after that transaction has committed. A message the database refuses fails on its own,
+ * not with the rest of its batch. When the buffer is full, sends are refused rather than queued without bound.
+ * <p>
+ * Futures complete on the writer thread; callers should continue on their own executor.
+ */
+@Slf4j
+@Component
+public class MessageWriter {
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final MessageRepository messageRepo;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+    private final Counter rejected;
+    private volatile boolean running;
+    private Thread thread;
+
+    public MessageWriter(MessageRepository messageRepo,
+                         MeterRegistry meterRegistry,
+                         @Value("${conversation.messages.queue-capacity:65536}") int queueCapacity,
+                         @Value("${conversation.messages.max-batch-size:500}") int maxBatchSize,
+                         @Value("${conversation.messages.flush-interval-ms:2}") long flushIntervalMs) {
+        this.messageRepo = messageRepo;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        Gauge.builder("conversation.messages.queue_depth", queue, BlockingQueue::size)
+                .description("Messages waiting for the next group commit")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("conversation.messages.batch_size")
+                .description("Messages stored per group commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("conversation.messages.flush")
+                .description("Time to insert and commit one batch of messages")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("conversation.messages.rejected")
+                .description("Sends refused because the message queue was full")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("message-writer").daemon(true).start(this::run);
+    }
+
+    // The writer drains what is already queued before it exits
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues a message for the next batch. The returned future completes with the message once it is
+     * committed, or fails with the batch's error; it fails with {@link RejectedExecutionException}
+     * straight away when the queue is full.
+     */
+    public CompletableFuture<Message> append(Message message) {
+        Pending pending = new Pending(message, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Message queue is full"));
+        }
+        return pending.durable();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch, System.nanoTime() + flushIntervalNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Fills the batch until it is full or the flush deadline passes
+    private void collect(List<Pending> batch, long deadline) throws InterruptedException {
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            store(batch);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(batch.size());
+        }
+    }
+
+    // A row the database refuses (a constraint or a value it cannot store) rolls back the whole batch, so the
+    // batch is stored again message by message and only the offending messages fail. Any other failure, such as
+    // the database being unreachable, would only repeat per message, so it fails the batch at once
+    private void store(List<Pending> batch) {
+        try {
+            messageRepo.appendAll(batch.stream().map(Pending::message).toList());
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            log.warn("A batch of {} messages was refused, storing them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::storeAlone);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Failed to store a batch of {} messages: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.durable().completeExceptionally(e));
+            return;
+        }
+        batch.forEach(pending -> pending.durable().complete(pending.message()));
+    }
+
+    private void storeAlone(Pending pending) {
+        try {
+            messageRepo.appendAll(List.of(pending.message()));
+        } catch (RuntimeException e) {
+            fail(pending, e);
+            return;
+        }
+        pending.durable().complete(pending.message());
+    }
+
+    private void fail(Pending pending, RuntimeException e) {
+        log.warn("Message {} of conversation {} was not stored: {}",
+                pending.message().id(), pending.message().conversationId(), e.getMessage());
+        pending.durable().completeExceptionally(e);
+    }
+
+    private record Pending(Message message, CompletableFuture<Message> durable) {}
+}
@@ -0,0 +1,122 @@
+package com.example.conversation_service.websocket;
+
+import com.example.conversation_service.dto.ChatFrame;
+import com.example.conversation_service.service.MessageService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * One handler for every chat socket. A connected user receives the messages of all of their conversations,
+ * so connecting is subscribing; there is no per-conversation subscribe frame. Frames are handled on the
+ * container's threads, which are virtual with {@code spring.threads.virtual.enabled}, and an idle socket
+ * holds no thread at all.
+ */
+@Slf4j
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String DECORATED_ATTRIBUTE = "decoratedSession";
+
+    private final MessageService messageService;
+    private final SessionRegistry sessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+
+    public ChatWebSocketHandler(MessageService messageService,
+                                SessionRegistry sessionRegistry,
+                                ObjectMapper objectMapper,
+                                @Value("${conversation.websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+                                @Value("${conversation.websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit) {
+        this.messageService = messageService;
+        this.sessionRegistry = sessionRegistry;
+        this.objectMapper = objectMapper;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+    }
+
+    // Sends from several senders may hit one session at once; the decorator serializes them and closes a
+    // session whose client stops reading instead of letting it stall everyone's fan-out
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferSizeLimit);
+        session.getAttributes().put(DECORATED_ATTRIBUTE, decorated);
+        sessionRegistry.register(userId(session), decorated);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessionRegistry.unregister(userId(session), decorated(session));
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        ChatFrame frame;
+        try {
+            frame = objectMapper.readValue(message.getPayload(), ChatFrame.class);
+        } catch (JsonProcessingException e) {
+            reply(session, new ChatFrame.Error(null, "Unreadable frame"));
+            return;
+        }
+
+        try {
+            switch (frame) {
+                case ChatFrame.Send send -> messageService.send(userId(session), send).whenComplete((sent, failure) -> {
+                    if (failure != null) {
+                        replyQuietly(session, new ChatFrame.Error(send.conversationId(), "Message was not stored"));
+                    }
+                });
+                case ChatFrame.Read read -> messageService.markRead(userId(session), read.conversationId());
+                default -> reply(session, new ChatFrame.Error(null, "Only send and read frames are accepted"));
+            }
+        } catch (IllegalArgumentException e) {
+            reply(session, new ChatFrame.Error(conversationId(frame), e.getMessage()));
+        }
+    }
+
+    private static UUID conversationId(ChatFrame frame) {
+        return switch (frame) {
+            case ChatFrame.Send send -> send.conversationId();
+            case ChatFrame.Read read -> read.conversationId();
+            case ChatFrame.Message message -> message.conversationId();
+            case ChatFrame.Error error -> error.conversationId();
+        };
+    }
+
+    private void replyQuietly(WebSocketSession session, ChatFrame frame) {
+        try {
+            reply(session, frame);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not reply on session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void reply(WebSocketSession session, ChatFrame frame) throws IOException {
+        decorated(session).sendMessage(new TextMessage(objectMapper.writerFor(ChatFrame.class).writeValueAsString(frame)));
+    }
+
+    private static UUID userId(WebSocketSession session) {
+        return (UUID) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+    }
+
+    private static WebSocketSession decorated(WebSocketSession session) {
+        Object decorated = session.getAttributes().get(DECORATED_ATTRIBUTE);
+        return decorated instanceof WebSocketSession ws ? ws : session;
+    }
+}
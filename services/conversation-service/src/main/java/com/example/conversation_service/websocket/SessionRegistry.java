@@ -0,0 +1,87 @@
+package com.example.conversation_service.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live WebSocket sessions on this node, indexed by user id. A user usually has one or two sessions
+ * (devices), so each user's set is copy-on-write and delivery iterates it without locking.
+ * Sessions are registered already wrapped for concurrent sends, so a slow client never blocks the sender.
+ */
+@Slf4j
+@Component
+public class SessionRegistry {
+
+    private final Map<UUID, Set<WebSocketSession>> sessionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    public SessionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("conversation.websocket.sessions", sessionCount, AtomicInteger::get)
+                .description("Open WebSocket sessions on this node")
+                .register(meterRegistry);
+        Gauge.builder("conversation.websocket.users", sessionsByUser, Map::size)
+                .description("Users with at least one open WebSocket session on this node")
+                .register(meterRegistry);
+    }
+
+    public void register(UUID userId, WebSocketSession session) {
+        sessionsByUser.compute(userId, (ignored, sessions) -> {
+            Set<WebSocketSession> updated = sessions == null ? new CopyOnWriteArraySet<>() : sessions;
+            if (updated.add(session)) {
+                sessionCount.incrementAndGet();
+            }
+            return updated;
+        });
+    }
+
+    public void unregister(UUID userId, WebSocketSession session) {
+        sessionsByUser.computeIfPresent(userId, (ignored, sessions) -> {
+            if (sessions.remove(session)) {
+                sessionCount.decrementAndGet();
+            }
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    public boolean isConnected(UUID userId) {
+        return sessionsByUser.containsKey(userId);
+    }
+
+    public int sessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Sends the message to every open session of the user and returns how many took it.
+     * A failing or overloaded session is skipped; the decorator or the transport error closes it and the
+     * handler unregisters it.
+     */
+    public int deliver(UUID userId, TextMessage message) {
+        Set<WebSocketSession> sessions = sessionsByUser.get(userId);
+        if (sessions == null) {
+            return 0;
+        }
+        int delivered = 0;
+        for (WebSocketSession session : sessions) {
+            try {
+                session.sendMessage(message);
+                delivered++;
+            } catch (IOException | RuntimeException e) {
+                log.debug("Dropping message for session {} of user {}: {}", session.getId(), userId, e.getMessage());
+            }
+        }
+        return delivered;
+    }
+}
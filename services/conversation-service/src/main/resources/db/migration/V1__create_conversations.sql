@@ -0,0 +1,7 @@
+-- Schema as previously created by hibernate.ddl-auto=update; existing databases are baselined at this version
+CREATE TABLE IF NOT EXISTS conversations (
+    conversation_id UUID NOT NULL PRIMARY KEY,
+    user1_id        UUID NOT NULL,
+    user2_id        UUID NOT NULL,
+    created_at      TIMESTAMP(6) WITH TIME ZONE
+);
@@ -0,0 +1,13 @@
+-- Exists-then-insert let two concurrent requests create the same pair; keep one row per pair
+DELETE FROM conversations c
+USING conversations d
+WHERE c.user1_id = d.user1_id
+  AND c.user2_id = d.user2_id
+  AND c.ctid > d.ctid;
+
+-- Pairs are stored ordered (the application puts the smaller id first), so one constraint covers both directions.
+-- Its index also serves the pair lookup and ON CONFLICT arbitration for get-or-create
+ALTER TABLE conversations
+    ADD CONSTRAINT uq_conversations_pair UNIQUE (user1_id, user2_id);
+
+ANALYZE conversations;
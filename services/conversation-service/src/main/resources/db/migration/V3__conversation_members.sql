@@ -0,0 +1,17 @@
+-- One row per participant, so a user's conversations are one range of the primary key, newest last.
+-- peer_id rides along in the index, so listing a page is an index-only scan
+CREATE TABLE IF NOT EXISTS conversation_members (
+    user_id         UUID                        NOT NULL,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    conversation_id UUID                        NOT NULL REFERENCES conversations (conversation_id) ON DELETE CASCADE,
+    peer_id         UUID                        NOT NULL,
+    CONSTRAINT conversation_members_pkey PRIMARY KEY (user_id, created_at, conversation_id) INCLUDE (peer_id)
+);
+
+INSERT INTO conversation_members (user_id, created_at, conversation_id, peer_id)
+SELECT user1_id, COALESCE(created_at, 'epoch'), conversation_id, user2_id FROM conversations
+UNION ALL
+SELECT user2_id, COALESCE(created_at, 'epoch'), conversation_id, user1_id FROM conversations
+WHERE user2_id <> user1_id;
+
+ANALYZE conversation_members;
@@ -0,0 +1,10 @@
+-- Append-only: rows are inserted and never updated. message_id is a UUIDv7, so within a conversation the primary
+-- key is in send order and "latest N" or "older than X" is one backward range scan of it, at any depth
+CREATE TABLE IF NOT EXISTS messages (
+    conversation_id UUID                        NOT NULL REFERENCES conversations (conversation_id) ON DELETE CASCADE,
+    message_id      UUID                        NOT NULL,
+    sender_id       UUID                        NOT NULL,
+    content         TEXT                        NOT NULL,
+    sent_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT messages_pkey PRIMARY KEY (conversation_id, message_id)
+);
@@ -2,8 +2,16 @@ package com.example.conversation_service;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.test.context.EmbeddedKafka;
 
-@SpringBootTest
+// Loads the whole context against real Postgres, Redis and Kafka, so bean wiring problems fail here and not at deploy
+@Import(TestcontainersConfiguration.class)
+@EmbeddedKafka(kraft = true, partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@SpringBootTest(properties = {
+		"spring.datasource.driver-class-name=org.postgresql.Driver",
+		"jwt.secret=context-test-secret-that-is-at-least-32-bytes-long"
+})
 class ConversationServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,238 @@
+package com.example.conversation_service.config;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several conversation-service instances sharing one broker, each with its own reply container, the way
+ * they run behind a load balancer. With 8 replicas on 6 reply partitions some instances share a partition.
+ */
+class KafkaConfigReplyRoutingTest {
+
+    private static final int REPLY_PARTITIONS = 6;
+    // Latency samples per replica count, split evenly across the instances
+    private static final int SAMPLES = 400;
+    private static final Duration REPLY_TIMEOUT = Duration.ofSeconds(5);
+
+    private static EmbeddedKafkaBroker broker;
+    private static StubAuthService stubAuthService;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, REPLY_PARTITIONS,
+                KafkaTopics.USER_EXISTENCE_REQUEST, KafkaTopics.USER_EXISTENCE_RESPONSE);
+        broker.afterPropertiesSet();
+        stubAuthService = new StubAuthService(broker.getBrokersAsString());
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        stubAuthService.close();
+        broker.destroy();
+    }
+
+    @Test
+    void replyingKafkaTemplate_ReplicasScaleOut_EveryReplyReachesItsRequesterAndP99StaysFlat() throws Exception {
+        Map<Integer, Long> p99Micros = new TreeMap<>();
+        for (int replicas : new int[]{1, 2, 4, 8}) {
+            p99Micros.put(replicas, p99Micros(replicas));
+        }
+
+        long single = p99Micros.get(1);
+        String byReplicas = "p99 by replica count (us): " + p99Micros;
+        for (long p99 : p99Micros.values()) {
+            assertTrue(p99 < REPLY_TIMEOUT.toNanos() / 1_000 / 10, "p99 close to the reply timeout, " + byReplicas);
+            assertTrue(p99 < Math.max(4 * single, 250_000), "p99 grew with the replica count, " + byReplicas);
+        }
+    }
+
+    @Test
+    void replyPartition_ExplicitIndexOutsideTopic_Rejected() {
+        KafkaConfig config = config(REPLY_PARTITIONS);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, config::replyPartition);
+        assertTrue(ex.getMessage().contains("reply-partition"));
+    }
+
+    @Test
+    void replyPartition_NoExplicitIndex_DerivedWithinTopic() {
+        KafkaConfig config = config(-1);
+
+        int partition = config.replyPartition();
+        assertTrue(partition >= 0 && partition < REPLY_PARTITIONS);
+    }
+
+    /*
+     * Closed loop: each round every instance sends one request and the round waits for all of their replies, so
+     * an instance carries the same load at every replica count. Latency is taken when the reply arrives.
+     * Firing every request up front instead put the whole burst (8 x 50 at the top step) in front of the single
+     * stub responder, and reading the futures in order charged each reply with the wait for the ones before it,
+     * so the top step measured the test's own queue rather than reply routing.
+     */
+    private long p99Micros(int replicas) throws Exception {
+        List<ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse>> templates = new ArrayList<>();
+        try {
+            for (int i = 0; i < replicas; i++) {
+                ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> template =
+                        config(i % REPLY_PARTITIONS).replyingKafkaTemplate();
+                template.start();
+                assertTrue(template.waitForAssignment(Duration.ofSeconds(30)));
+                templates.add(template);
+            }
+            templates.forEach(KafkaConfigReplyRoutingTest::warmUp);
+
+            int rounds = SAMPLES / replicas;
+            long[] latencies = new long[rounds * replicas];
+            int sample = 0;
+            for (int round = 0; round < rounds; round++) {
+                List<CompletableFuture<Reply>> inFlight = new ArrayList<>();
+                for (ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> template : templates) {
+                    long sentAt = System.nanoTime();
+                    inFlight.add(template.sendAndReceive(request(), REPLY_TIMEOUT)
+                            .thenApply(record -> new Reply(record, System.nanoTime() - sentAt)));
+                }
+                for (int i = 0; i < replicas; i++) {
+                    Reply reply = inFlight.get(i).get(REPLY_TIMEOUT.toMillis() * 2, TimeUnit.MILLISECONDS);
+                    assertEquals(i % REPLY_PARTITIONS, reply.record().partition(), "reply partition of instance " + i);
+                    assertTrue(reply.record().value().isValid());
+                    latencies[sample++] = reply.nanos();
+                }
+            }
+
+            Arrays.sort(latencies);
+            return latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000;
+        } finally {
+            for (ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> template : templates) {
+                template.stop();
+                ((DefaultKafkaProducerFactory<?, ?>) template.getProducerFactory()).destroy();
+            }
+        }
+    }
+
+    private record Reply(ConsumerRecord<String, UserValidationResponse> record, long nanos) {
+    }
+
+    // The container seeks to the end lazily, so retry until a reply sent after the seek comes back
+    private static void warmUp(ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> template) {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            try {
+                template.sendAndReceive(request(), Duration.ofMillis(500)).get();
+                return;
+            } catch (Exception ex) {
+                // not positioned yet
+            }
+        }
+        fail("reply container never received a reply");
+    }
+
+    private static KafkaConfig config(int replyPartition) {
+        KafkaConfig config = new KafkaConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(config, "groupId", "conversation-service-group");
+        ReflectionTestUtils.setField(config, "maxReplyTimeoutMs", REPLY_TIMEOUT.toMillis());
+        ReflectionTestUtils.setField(config, "replyPartitions", REPLY_PARTITIONS);
+        ReflectionTestUtils.setField(config, "replyPartition", replyPartition);
+        return config;
+    }
+
+    private static ProducerRecord<String, UserValidationRequest> request() {
+        return new ProducerRecord<>(KafkaTopics.USER_EXISTENCE_REQUEST,
+                new UserValidationRequest(UUID.randomUUID().toString(), List.of(UUID.randomUUID())));
+    }
+
+    /** Answers every validation request as valid on the partition named in its REPLY_PARTITION header. */
+    static final class StubAuthService implements AutoCloseable {
+        private final KafkaConsumer<String, UserValidationRequest> consumer;
+        private final KafkaProducer<String, Object> producer;
+        private final Thread poller;
+        private volatile boolean running = true;
+
+        StubAuthService(String bootstrapServers) {
+            consumer = new KafkaConsumer<>(Map.of(
+                    ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                    ConsumerConfig.GROUP_ID_CONFIG, "stub-auth-service",
+                    ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                    ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                    ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class,
+                    JsonDeserializer.VALUE_DEFAULT_TYPE, UserValidationRequest.class.getName(),
+                    JsonDeserializer.USE_TYPE_INFO_HEADERS, false));
+            producer = new KafkaProducer<>(Map.of(
+                    ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                    ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                    ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+                    ProducerConfig.LINGER_MS_CONFIG, 0,
+                    JsonSerializer.ADD_TYPE_INFO_HEADERS, false));
+            consumer.subscribe(List.of(KafkaTopics.USER_EXISTENCE_REQUEST));
+
+            poller = Thread.ofPlatform().name("stub-auth-service").daemon(true).start(() -> {
+                try {
+                    while (running) {
+                        for (ConsumerRecord<String, UserValidationRequest> record : consumer.poll(Duration.ofMillis(50))) {
+                            reply(record);
+                        }
+                    }
+                } catch (WakeupException ignored) {
+                    // closing
+                } finally {
+                    consumer.close();
+                }
+            });
+        }
+
+        private void reply(ConsumerRecord<String, UserValidationRequest> request) {
+            Header partition = request.headers().lastHeader(KafkaHeaders.REPLY_PARTITION);
+            ProducerRecord<String, Object> reply = new ProducerRecord<>(KafkaTopics.USER_EXISTENCE_RESPONSE,
+                    partition == null ? null : ByteBuffer.wrap(partition.value()).getInt(), null,
+                    new UserValidationResponse(request.value().correlationId(), true, "All users exist"));
+            reply.headers().add(request.headers().lastHeader(KafkaHeaders.CORRELATION_ID));
+            producer.send(reply);
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            consumer.wakeup();
+            try {
+                poller.join(5_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            producer.close();
+        }
+    }
+}
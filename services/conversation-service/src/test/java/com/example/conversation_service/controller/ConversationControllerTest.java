@@ -0,0 +1,106 @@
+package com.example.conversation_service.controller;
+
+import com.example.common.dto.ApiResponse;
+import com.example.conversation_service.dto.MessagePage;
+import com.example.conversation_service.repository.RevokedTokenRepository;
+import com.example.conversation_service.security.AccessTokenVerifier;
+import com.example.conversation_service.service.ConversationService;
+import com.example.conversation_service.service.MessageService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * The token-authenticated reads go through the same revocation-aware {@link AccessTokenVerifier} as the chat
+ * socket, so a token revoked at logout stops working here too even though its signature is still valid.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConversationControllerTest {
+
+    private static final String SECRET = "controller-test-secret-that-is-at-least-32-bytes-long";
+
+    @Mock
+    private ConversationService conversationService;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private RevokedTokenRepository revokedTokens;
+
+    private ConversationController controller;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        controller = new ConversationController();
+        ReflectionTestUtils.setField(controller, "conversationService", conversationService);
+        ReflectionTestUtils.setField(controller, "messageService", messageService);
+        ReflectionTestUtils.setField(controller, "tokenVerifier", new AccessTokenVerifier(SECRET, revokedTokens));
+    }
+
+    @Test
+    void listMessages_RevokedToken_UnauthorizedWithoutReadingHistory() {
+        when(revokedTokens.isRevoked(anyString(), anyString(), anyString(), any())).thenReturn(true);
+
+        ResponseEntity<ApiResponse<MessagePage>> response =
+                controller.listMessages(bearer(), UUID.randomUUID(), null, 50);
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatusCode().value());
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void listMessages_LiveToken_HistoryReadForTheTokensUser() {
+        UUID conversationId = UUID.randomUUID();
+        when(revokedTokens.isRevoked(anyString(), anyString(), anyString(), any())).thenReturn(false);
+        when(messageService.history(userId, conversationId, null, 50))
+                .thenReturn(ApiResponse.<MessagePage>builder().status(HttpStatus.OK.value()).build());
+
+        ResponseEntity<ApiResponse<MessagePage>> response = controller.listMessages(bearer(), conversationId, null, 50);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
+    }
+
+    @Test
+    void unreadCounts_RevokedToken_UnauthorizedWithoutReadingCounters() {
+        when(revokedTokens.isRevoked(anyString(), anyString(), anyString(), any())).thenReturn(true);
+
+        ResponseEntity<ApiResponse<Map<UUID, Long>>> response =
+                controller.unreadCounts(bearer(), List.of(UUID.randomUUID()));
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatusCode().value());
+        verifyNoInteractions(messageService);
+    }
+
+    private String bearer() {
+        return "Bearer " + Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject("alice@example.com")
+                .issuedAt(new Date())
+                .expiration(Date.from(Instant.now().plusSeconds(900)))
+                .claim("uid", userId.toString())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.conversation_service.kafka;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.conversation_service.config.KafkaConfig;
+import com.example.conversation_service.websocket.SessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Several conversation-service nodes sharing one broker, each with its own relay, session registry and
+ * listener container, the way they run behind a load balancer. Every message is sent on node 0 to a
+ * recipient connected to one of the other nodes.
+ */
+class ChatMessageRelayTest {
+
+    private static final int NODES = 4;
+    private static final int PARTITIONS = 6;
+    private static final int MESSAGES = 600;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, KafkaTopics.CHAT_MESSAGES);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void onMessage_RecipientsOnOtherNodes_DeliveredOnlyWhereConnectedWithLowLatency() throws Exception {
+        List<Node> nodes = new ArrayList<>();
+        try {
+            for (int i = 0; i < NODES; i++) {
+                nodes.add(new Node());
+            }
+            UUID sender = UUID.randomUUID();
+            nodes.get(0).connect(sender);
+            UUID[] recipients = new UUID[NODES];
+            for (int i = 1; i < NODES; i++) {
+                recipients[i] = UUID.randomUUID();
+                nodes.get(i).connect(recipients[i]);
+            }
+            warmUp(nodes);
+
+            long[] sentAt = new long[MESSAGES];
+            for (int m = 0; m < MESSAGES; m++) {
+                int target = 1 + m % (NODES - 1);
+                sentAt[m] = System.nanoTime();
+                nodes.get(0).relay.publish(UUID.randomUUID(), sender, recipients[target], payload("m" + m));
+            }
+
+            long[] latencies = new long[MESSAGES];
+            for (int m = 0; m < MESSAGES; m++) {
+                Node target = nodes.get(1 + m % (NODES - 1));
+                latencies[m] = target.awaitReceipt("m" + m) - sentAt[m];
+            }
+            for (int i = 0; i < NODES; i++) {
+                int expected = i == 0 ? 0 : MESSAGES / (NODES - 1);
+                assertEquals(expected, nodes.get(i).countReceived("m"), "messages delivered on node " + i);
+            }
+
+            Arrays.sort(latencies);
+            long p99 = latencies[(int) Math.ceil(MESSAGES * 0.99) - 1] / 1_000;
+            assertTrue(p99 < 1_000_000, "cross-node delivery p99 over " + NODES + " nodes: " + p99 + " us");
+        } finally {
+            nodes.forEach(Node::close);
+        }
+    }
+
+    @Test
+    void onMessage_NoLocalParticipant_SkippedWithoutTouchingPayload() {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChatMessageRelay relay = new ChatMessageRelay(mock(KafkaTemplate.class), registry, meterRegistry);
+
+        relay.onMessage(record(otherRelay(), UUID.randomUUID(), UUID.randomUUID(), null));
+
+        verify(registry, never()).deliver(any(), any());
+        assertEquals(1, meterRegistry.get("conversation.chat_relay.skipped").counter().count());
+    }
+
+    @Test
+    void onMessage_PublishedByThisNode_Skipped() {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        when(registry.isConnected(any())).thenReturn(true);
+        ChatMessageRelay relay = new ChatMessageRelay(mock(KafkaTemplate.class), registry, new SimpleMeterRegistry());
+
+        relay.onMessage(record(relay, UUID.randomUUID(), UUID.randomUUID(), payload("own")));
+
+        verify(registry, never()).deliver(any(), any());
+    }
+
+    @Test
+    void onMessage_SenderConnectedHere_SenderSessionsGetTheirCopy() {
+        SessionRegistry registry = mock(SessionRegistry.class);
+        UUID sender = UUID.randomUUID();
+        when(registry.isConnected(sender)).thenReturn(true);
+        ChatMessageRelay relay = new ChatMessageRelay(mock(KafkaTemplate.class), registry, new SimpleMeterRegistry());
+
+        relay.onMessage(record(otherRelay(), sender, UUID.randomUUID(), payload("echo")));
+
+        verify(registry).deliver(eq(sender), any());
+        verify(registry, times(1)).deliver(any(), any());
+    }
+
+    // The containers seek to the end lazily, so probe until a message published after the seek reaches every node
+    private static void warmUp(List<Node> nodes) throws InterruptedException {
+        UUID everywhere = UUID.randomUUID();
+        nodes.subList(1, NODES).forEach(node -> node.connect(everywhere));
+        for (int attempt = 0; attempt < 50; attempt++) {
+            nodes.get(0).relay.publish(UUID.randomUUID(), UUID.randomUUID(), everywhere, payload("warm-up"));
+            TimeUnit.MILLISECONDS.sleep(200);
+            if (nodes.subList(1, NODES).stream().allMatch(node -> node.countReceived("warm-up") > 0)) {
+                return;
+            }
+        }
+        fail("relay containers never received a message");
+    }
+
+    private static ChatMessageRelay otherRelay() {
+        return new ChatMessageRelay(mock(KafkaTemplate.class), mock(SessionRegistry.class), new SimpleMeterRegistry());
+    }
+
+    // The record publish() hands to Kafka, as the consumer side sees it
+    @SuppressWarnings("unchecked")
+    private static ConsumerRecord<String, byte[]> record(ChatMessageRelay publisher, UUID sender, UUID recipient,
+                                                         byte[] payload) {
+        KafkaTemplate<String, byte[]> template =
+                (KafkaTemplate<String, byte[]>) ReflectionTestUtils.getField(publisher, "kafkaTemplate");
+        when(template.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        publisher.publish(UUID.randomUUID(), sender, recipient, payload);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template).send(sent.capture());
+        ProducerRecord<String, byte[]> produced = sent.getValue();
+        ConsumerRecord<String, byte[]> consumed =
+                new ConsumerRecord<>(produced.topic(), 0, 0, produced.key(), produced.value());
+        produced.headers().forEach(header -> consumed.headers().add(header));
+        return consumed;
+    }
+
+    private static byte[] payload(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** One conversation-service node: its own relay, session registry and chat listener container. */
+    private static final class Node implements AutoCloseable {
+        private final SessionRegistry registry = new SessionRegistry(new SimpleMeterRegistry());
+        private final Map<String, Long> receivedAt = new ConcurrentHashMap<>();
+        private final KafkaTemplate<String, byte[]> template;
+        private final ChatMessageRelay relay;
+        private final ConcurrentMessageListenerContainer<String, byte[]> container;
+
+        Node() {
+            KafkaConfig config = new KafkaConfig();
+            ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+            ReflectionTestUtils.setField(config, "groupId", "conversation-service-group");
+            template = config.chatMessageKafkaTemplate();
+            relay = new ChatMessageRelay(template, registry, new SimpleMeterRegistry());
+            container = config.chatMessageListenerContainer(relay);
+            container.start();
+            ContainerTestUtils.waitForAssignment(container, PARTITIONS);
+        }
+
+        void connect(UUID userId) {
+            WebSocketSession session = mock(WebSocketSession.class);
+            try {
+                doAnswer(invocation -> {
+                    receivedAt.putIfAbsent(invocation.<TextMessage>getArgument(0).getPayload(), System.nanoTime());
+                    return null;
+                }).when(session).sendMessage(any());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            registry.register(userId, session);
+        }
+
+        long awaitReceipt(String content) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                Long at = receivedAt.get(content);
+                if (at != null) {
+                    return at;
+                }
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            throw new AssertionError(content + " never delivered");
+        }
+
+        long countReceived(String prefix) {
+            return receivedAt.keySet().stream().filter(content -> content.startsWith(prefix)).count();
+        }
+
+        @Override
+        public void close() {
+            container.stop();
+            ((DefaultKafkaProducerFactory<?, ?>) template.getProducerFactory()).destroy();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.conversation_service.kafka;
+
+import com.example.common.constants.KafkaTopics;
+import com.example.common.events.UserDeleted;
+import com.example.common.events.UserLifecycleEvent;
+import com.example.common.events.UserRegistered;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserProjectionTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition(KafkaTopics.USER_LIFECYCLE, 0);
+
+    private final MockConsumer<String, UserLifecycleEvent> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private UserProjection projection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ConsumerFactory<String, UserLifecycleEvent> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer(isNull(), anyString())).thenReturn(consumer);
+
+        consumer.updatePartitions(KafkaTopics.USER_LIFECYCLE,
+                List.of(new PartitionInfo(KafkaTopics.USER_LIFECYCLE, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        projection = new UserProjection(consumerFactory, new SimpleMeterRegistry(), 16);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        projection.stop();
+    }
+
+    @Test
+    void start_ReplaysTopicFromBeginning_ThenCatchesUp() {
+        consumer.updateEndOffsets(Map.of(PARTITION, 3L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, alice, new UserRegistered(alice, Instant.now())));
+            consumer.addRecord(record(1, bob, new UserRegistered(bob, Instant.now())));
+            consumer.addRecord(record(2, alice, new UserDeleted(alice, Instant.now())));
+        });
+
+        projection.start();
+
+        await(projection::isCaughtUp);
+        assertTrue(projection.containsAll(List.of(bob)));
+        assertFalse(projection.containsAll(List.of(alice, bob)));
+    }
+
+    @Test
+    void start_BeforeEndOffsetReached_NotCaughtUp() throws InterruptedException {
+        consumer.updateEndOffsets(Map.of(PARTITION, 5L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, alice, new UserRegistered(alice, Instant.now())));
+            consumer.addRecord(record(1, bob, new UserRegistered(bob, Instant.now())));
+        });
+
+        projection.start();
+
+        await(() -> projection.size() == 2);
+        Thread.sleep(50);
+        assertFalse(projection.isCaughtUp());
+    }
+
+    @Test
+    void start_EmptyTopic_CaughtUpImmediately() {
+        consumer.updateEndOffsets(Map.of(PARTITION, 0L));
+
+        projection.start();
+
+        await(projection::isCaughtUp);
+        assertEquals(0, projection.size());
+    }
+
+    @Test
+    void stop_ConsumerClosed_NoLongerCaughtUp() throws InterruptedException {
+        consumer.updateEndOffsets(Map.of(PARTITION, 0L));
+        projection.start();
+        await(projection::isCaughtUp);
+
+        projection.stop();
+
+        assertFalse(projection.isCaughtUp());
+        assertTrue(consumer.closed());
+    }
+
+    @Test
+    void apply_TombstoneRemovesUser_UnreadableRecordIsSkipped() {
+        projection.apply(record(0, alice, new UserRegistered(alice, Instant.now())));
+
+        ConsumerRecord<String, UserLifecycleEvent> unreadable = record(1, alice, null);
+        unreadable.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[0]);
+        projection.apply(unreadable);
+        assertTrue(projection.containsAll(List.of(alice)));
+
+        projection.apply(record(2, alice, null));
+        assertFalse(projection.containsAll(List.of(alice)));
+    }
+
+    private static ConsumerRecord<String, UserLifecycleEvent> record(long offset, UUID userId, UserLifecycleEvent event) {
+        return new ConsumerRecord<>(KafkaTopics.USER_LIFECYCLE, 0, offset, userId.toString(), event);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.conversation_service.kafka;
+
+import com.example.common.dto.UserValidationRequest;
+import com.example.common.dto.UserValidationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.kafka.requestreply.RequestReplyFuture;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserValidationClientTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+
+    @SuppressWarnings("unchecked")
+    private final ReplyingKafkaTemplate<String, UserValidationRequest, UserValidationResponse> kafkaTemplate =
+            mock(ReplyingKafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserValidationClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new UserValidationClient(kafkaTemplate, meterRegistry, 250, 5_000, 3, FAILURE_THRESHOLD);
+    }
+
+    @Test
+    void validate_FastReplies_TimeoutShrinksFromCeilingToFloor() {
+        when(kafkaTemplate.sendAndReceive(any(ProducerRecord.class), any(Duration.class))).thenAnswer(i -> answered());
+        assertEquals(Duration.ofSeconds(5), client.timeout());
+
+        for (int i = 0; i < 32; i++) {
+            client.validate("c" + i, List.of(UUID.randomUUID())).join();
+        }
+        client.validate("last", List.of(UUID.randomUUID())).join();
+
+        ArgumentCaptor<Duration> timeouts = ArgumentCaptor.forClass(Duration.class);
+        verify(kafkaTemplate, times(33)).sendAndReceive(any(ProducerRecord.class), timeouts.capture());
+        assertEquals(Duration.ofSeconds(5), timeouts.getAllValues().get(0));
+        assertEquals(Duration.ofMillis(250), timeouts.getValue());
+        assertEquals(250.0, meterRegistry.get("conversation.user_validation.timeout").gauge().value());
+    }
+
+    @Test
+    void validate_RepeatedTimeouts_CircuitOpensAndFailsFast() {
+        when(kafkaTemplate.sendAndReceive(any(ProducerRecord.class), any(Duration.class))).thenAnswer(i -> timedOut());
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThrows(CompletionException.class, () -> client.validate("c", List.of(UUID.randomUUID())).join());
+        }
+        assertEquals(UserValidationClient.State.OPEN, client.state());
+
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> client.validate("c", List.of(UUID.randomUUID())).join());
+        assertInstanceOf(UserValidationUnavailableException.class, rejected.getCause());
+        verify(kafkaTemplate, times(FAILURE_THRESHOLD)).sendAndReceive(any(ProducerRecord.class), any(Duration.class));
+        assertEquals(1.0, meterRegistry.get("conversation.user_validation.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("conversation.user_validation.circuit_open").gauge().value());
+    }
+
+    @Test
+    void probe_AnsweredWhileOpen_ClosesCircuitWithCeilingTimeout() {
+        when(kafkaTemplate.sendAndReceive(any(ProducerRecord.class), any(Duration.class))).thenAnswer(i -> timedOut());
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            client.validate("c", List.of(UUID.randomUUID()));
+        }
+
+        client.probe();
+        assertEquals(UserValidationClient.State.OPEN, client.state());
+
+        reset(kafkaTemplate);
+        when(kafkaTemplate.sendAndReceive(any(ProducerRecord.class), any(Duration.class))).thenAnswer(i -> answered());
+        client.probe();
+
+        assertEquals(UserValidationClient.State.CLOSED, client.state());
+        assertEquals(Duration.ofSeconds(5), client.timeout());
+        assertTrue(client.validate("c", List.of(UUID.randomUUID())).join().isValid());
+    }
+
+    @Test
+    void probe_CircuitClosed_SendsNothing() {
+        client.probe();
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private static RequestReplyFuture<String, UserValidationRequest, UserValidationResponse> answered() {
+        RequestReplyFuture<String, UserValidationRequest, UserValidationResponse> future = new RequestReplyFuture<>();
+        future.complete(new ConsumerRecord<>("user-existence-response", 0, 0, null,
+                new UserValidationResponse("c", true, "All users exist")));
+        return future;
+    }
+
+    private static RequestReplyFuture<String, UserValidationRequest, UserValidationResponse> timedOut() {
+        RequestReplyFuture<String, UserValidationRequest, UserValidationResponse> future = new RequestReplyFuture<>();
+        future.completeExceptionally(new KafkaReplyTimeoutException("Reply timed out"));
+        return future;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.conversation_service.security;
+
+import com.example.conversation_service.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenVerifierTest {
+
+    private static final String SECRET = "verifier-test-secret-that-is-at-least-32-bytes-long";
+
+    @Mock
+    private RevokedTokenRepository revokedTokens;
+
+    private AccessTokenVerifier verifier;
+
+    private final UUID userId = UUID.randomUUID();
+    private final Instant issuedAt = Instant.ofEpochSecond(1_700_000_000L);
+
+    @BeforeEach
+    void setUp() {
+        verifier = new AccessTokenVerifier(SECRET, revokedTokens);
+    }
+
+    @Test
+    void userId_LiveToken_UserIdFromClaim() {
+        String token = token("jti-1");
+        when(revokedTokens.isRevoked(token, "jti-1", "alice@example.com", issuedAt)).thenReturn(false);
+
+        assertEquals(Optional.of(userId), verifier.userId(token));
+    }
+
+    @Test
+    void userIdFromBearer_RevokedToken_Empty() {
+        String token = token("jti-1");
+        when(revokedTokens.isRevoked(token, "jti-1", "alice@example.com", issuedAt)).thenReturn(true);
+
+        assertEquals(Optional.empty(), verifier.userIdFromBearer("Bearer " + token));
+    }
+
+    @Test
+    void userId_RedisUnavailable_RefusedRatherThanTrusted() {
+        when(revokedTokens.isRevoked(anyString(), anyString(), anyString(), any()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertEquals(Optional.empty(), verifier.userId(token("jti-1")));
+    }
+
+    @Test
+    void userId_ForgedSignature_EmptyWithoutRedisLookup() {
+        String forged = Jwts.builder()
+                .subject("alice@example.com")
+                .claim(AccessTokenVerifier.USER_ID_CLAIM, userId.toString())
+                .signWith(Keys.hmacShaKeyFor(
+                        "another-secret-that-is-at-least-32-bytes".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertEquals(Optional.empty(), verifier.userId(forged));
+        verifyNoInteractions(revokedTokens);
+    }
+
+    @Test
+    void userId_NoJti_LegacyBlacklistConsulted() {
+        String token = token(null);
+        when(revokedTokens.isRevoked(token, null, "alice@example.com", issuedAt)).thenReturn(true);
+
+        assertEquals(Optional.empty(), verifier.userId(token));
+    }
+
+    private String token(String jti) {
+        return Jwts.builder()
+                .id(jti)
+                .subject("alice@example.com")
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(Instant.now().plusSeconds(900)))
+                .claim(AccessTokenVerifier.USER_ID_CLAIM, userId.toString())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.conversation_service.service;
+
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import com.example.conversation_service.repository.ConversationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConversationPairCacheTest {
+
+    private final ConversationRepository conversationRepo = mock(ConversationRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final ConversationKey key = ConversationKey.of(alice, bob);
+    private ConversationPairCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConversationPairCache(conversationRepo, meterRegistry, 100, 600_000, 5_000, nanos::get);
+    }
+
+    @Test
+    void get_EitherOrder_OneQueryThenHits() {
+        Conversation stored = conversation();
+        when(conversationRepo.findByKey(key)).thenReturn(Optional.of(stored));
+
+        assertEquals(stored.getId(), cache.get(ConversationKey.of(alice, bob)).orElseThrow().getId());
+        assertEquals(stored.getId(), cache.get(ConversationKey.of(bob, alice)).orElseThrow().getId());
+
+        verify(conversationRepo, times(1)).findByKey(key);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_NoConversation_CachedUntilNegativeTtlExpires() {
+        when(conversationRepo.findByKey(key)).thenReturn(Optional.empty());
+
+        assertTrue(cache.get(key).isEmpty());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(4_000));
+        assertTrue(cache.get(key).isEmpty());
+        verify(conversationRepo, times(1)).findByKey(key);
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(2_000));
+        cache.get(key);
+        verify(conversationRepo, times(2)).findByKey(key);
+    }
+
+    @Test
+    void put_ReplacesCachedAbsence() {
+        when(conversationRepo.findByKey(key)).thenReturn(Optional.empty());
+        assertTrue(cache.get(key).isEmpty());
+
+        Conversation created = conversation();
+        cache.put(created);
+
+        assertEquals(created.getId(), cache.get(key).orElseThrow().getId());
+        // A positive entry outlives the negative TTL
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(60_000));
+        assertTrue(cache.get(key).isPresent());
+        verify(conversationRepo, times(1)).findByKey(key);
+    }
+
+    private Conversation conversation() {
+        return Conversation.builder()
+                .id(UUID.randomUUID())
+                .user1Id(key.user1Id())
+                .user2Id(key.user2Id())
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.conversation_service.service;
+
+import com.example.common.dto.ApiResponse;
+import com.example.common.dto.UserValidationResponse;
+import com.example.conversation_service.dto.ConversationPairResult;
+import com.example.conversation_service.dto.CreateConversationRequest;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import com.example.conversation_service.kafka.UserProjection;
+import com.example.conversation_service.kafka.UserValidationClient;
+import com.example.conversation_service.kafka.UserValidationUnavailableException;
+import com.example.conversation_service.repository.ConversationRepository;
+import com.example.conversation_service.repository.ConversationRepositoryCustom.GetOrCreateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationServiceBulkTests {
+
+    @Mock
+    private UserValidationClient validationClient;
+
+    @Mock
+    private ConversationRepository conversationRepo;
+
+    @Mock
+    private UserProjection userProjection;
+
+    @Mock
+    private ConversationPairCache pairCache;
+
+    private ConversationServiceImpl conversationService;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final UUID ghost = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        conversationService = new ConversationServiceImpl(
+                validationClient, conversationRepo, pairCache, userProjection, new TaskExecutorAdapter(Runnable::run));
+    }
+
+    @Test
+    void createConversations_MixedBatch_OneValidationOneLookupOneBatchedSave() {
+        when(userProjection.isCaughtUp()).thenReturn(false);
+        when(validationClient.validate(anyString(), anyList()))
+                .thenReturn(reply(new UserValidationResponse("c", false, "Missing users", List.of(ghost))));
+        when(conversationRepo.findExistingKeys(anyCollection())).thenReturn(Set.of(ConversationKey.of(alice, carol)));
+        when(conversationRepo.saveAllWithMembers(anyList()))
+                .thenAnswer(invocation -> savedWithIds(invocation.getArgument(0)));
+
+        ApiResponse<List<ConversationPairResult>> response = conversationService.createConversations(List.of(
+                new CreateConversationRequest(alice, bob),
+                new CreateConversationRequest(bob, alice),
+                new CreateConversationRequest(carol, alice),
+                new CreateConversationRequest(alice, ghost),
+                new CreateConversationRequest(bob, carol)
+        )).join();
+
+        List<ConversationPairResult> results = response.getData();
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(HttpStatus.CREATED.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(1).getStatus());
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(2).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(3).getStatus());
+        assertEquals(HttpStatus.CREATED.value(), results.get(4).getStatus());
+        assertNotNull(results.get(4).getConversation().getId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UUID>> sent = ArgumentCaptor.forClass(List.class);
+        verify(validationClient, times(1)).validate(anyString(), sent.capture());
+        assertEquals(Set.of(alice, bob, carol, ghost), Set.copyOf(sent.getValue()));
+        assertEquals(4, sent.getValue().size());
+
+        verify(conversationRepo, times(1)).findExistingKeys(anyCollection());
+        verify(conversationRepo, times(1))
+                .saveAllWithMembers(argThat(conversations -> ((Collection<?>) conversations).size() == 2));
+        verify(conversationRepo, never()).save(any());
+    }
+
+    @Test
+    void createConversations_ProjectionCaughtUp_NoKafkaRoundTrip() {
+        when(userProjection.isCaughtUp()).thenReturn(true);
+        when(userProjection.missing(anyCollection())).thenReturn(List.of());
+        when(conversationRepo.findExistingKeys(anyCollection())).thenReturn(Set.of());
+        when(conversationRepo.saveAllWithMembers(anyList()))
+                .thenAnswer(invocation -> savedWithIds(invocation.getArgument(0)));
+
+        ApiResponse<List<ConversationPairResult>> response = conversationService.createConversations(List.of(
+                new CreateConversationRequest(alice, bob)
+        )).join();
+
+        assertEquals(HttpStatus.CREATED.value(), response.getData().get(0).getStatus());
+        verifyNoInteractions(validationClient);
+    }
+
+    @Test
+    void createConversations_CaughtUpButIdUnknown_AsksAuthServiceForThatIdOnly() {
+        when(userProjection.isCaughtUp()).thenReturn(true);
+        when(userProjection.missing(anyCollection())).thenReturn(List.of(carol, ghost));
+        when(validationClient.validate(anyString(), eq(List.of(carol, ghost))))
+                .thenReturn(reply(new UserValidationResponse("c", false, "Missing users", List.of(ghost))));
+        when(conversationRepo.findExistingKeys(anyCollection())).thenReturn(Set.of());
+        when(conversationRepo.saveAllWithMembers(anyList()))
+                .thenAnswer(invocation -> savedWithIds(invocation.getArgument(0)));
+
+        ApiResponse<List<ConversationPairResult>> response = conversationService.createConversations(List.of(
+                new CreateConversationRequest(alice, carol),
+                new CreateConversationRequest(bob, ghost)
+        )).join();
+
+        // carol registered before the projection saw her event: auth-service vouches for her, not for ghost
+        assertEquals(HttpStatus.CREATED.value(), response.getData().get(0).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getData().get(1).getStatus());
+        verify(validationClient, times(1)).validate(anyString(), anyList());
+    }
+
+    @Test
+    void createConversations_ErrorReplyWithoutMissingIds_EveryPairRejected() {
+        when(userProjection.isCaughtUp()).thenReturn(false);
+        when(validationClient.validate(anyString(), anyList()))
+                .thenReturn(reply(new UserValidationResponse("c", false, "Error: db down")));
+
+        ApiResponse<List<ConversationPairResult>> response = conversationService.createConversations(List.of(
+                new CreateConversationRequest(alice, bob),
+                new CreateConversationRequest(bob, carol)
+        )).join();
+
+        assertTrue(response.getData().stream()
+                .allMatch(result -> result.getStatus() == HttpStatus.BAD_REQUEST.value()
+                        && result.getMessage().equals("Error: db down")));
+        verify(conversationRepo, never()).saveAllWithMembers(anyList());
+    }
+
+    @Test
+    void createConversations_CircuitOpen_ServiceUnavailableWithoutTouchingTheDatabase() {
+        when(userProjection.isCaughtUp()).thenReturn(false);
+        when(validationClient.validate(anyString(), anyList())).thenReturn(CompletableFuture.failedFuture(
+                new UserValidationUnavailableException("User validation circuit is OPEN")));
+
+        ApiResponse<List<ConversationPairResult>> response = conversationService.createConversations(List.of(
+                new CreateConversationRequest(alice, bob)
+        )).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertNull(response.getData());
+        verifyNoInteractions(conversationRepo);
+    }
+
+    @Test
+    void createConversations_ConcurrentInsertWinsAPair_SettledByGetOrCreate() {
+        when(userProjection.isCaughtUp()).thenReturn(true);
+        when(userProjection.missing(anyCollection())).thenReturn(List.of());
+        when(conversationRepo.findExistingKeys(anyCollection())).thenReturn(Set.of());
+        when(conversationRepo.saveAllWithMembers(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uq_conversations_pair"));
+        ConversationKey taken = ConversationKey.of(alice, bob);
+        ConversationKey free = ConversationKey.of(bob, carol);
+        when(conversationRepo.getOrCreate(taken)).thenReturn(new GetOrCreateResult(stored(taken), false));
+        when(conversationRepo.getOrCreate(free)).thenReturn(new GetOrCreateResult(stored(free), true));
+
+        ApiResponse<List<ConversationPairResult>> response = conversationService.createConversations(List.of(
+                new CreateConversationRequest(alice, bob),
+                new CreateConversationRequest(bob, carol)
+        )).join();
+
+        assertEquals(HttpStatus.CONFLICT.value(), response.getData().get(0).getStatus());
+        assertEquals(HttpStatus.CREATED.value(), response.getData().get(1).getStatus());
+        assertEquals("Created 1 of 2 conversations", response.getMessage());
+    }
+
+    private static Conversation stored(ConversationKey key) {
+        return Conversation.builder()
+                .id(UUID.randomUUID())
+                .user1Id(key.user1Id())
+                .user2Id(key.user2Id())
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private static CompletableFuture<UserValidationResponse> reply(UserValidationResponse response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private static List<Conversation> savedWithIds(List<Conversation> conversations) {
+        conversations.forEach(conversation -> {
+            conversation.setId(UUID.randomUUID());
+            conversation.setCreatedAt(Instant.now());
+        });
+        return conversations;
+    }
+}
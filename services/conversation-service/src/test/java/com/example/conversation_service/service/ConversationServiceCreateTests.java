@@ -0,0 +1,154 @@
+package com.example.conversation_service.service;
+
+import com.example.common.dto.ApiResponse;
+import com.example.common.dto.UserValidationResponse;
+import com.example.conversation_service.dto.ConversationResponse;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import com.example.conversation_service.kafka.UserProjection;
+import com.example.conversation_service.kafka.UserValidationClient;
+import com.example.conversation_service.repository.ConversationRepository;
+import com.example.conversation_service.repository.ConversationRepositoryCustom.GetOrCreateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationServiceCreateTests {
+
+    @Mock
+    private UserValidationClient validationClient;
+
+    @Mock
+    private ConversationRepository conversationRepo;
+
+    @Mock
+    private UserProjection userProjection;
+
+    @Mock
+    private ConversationPairCache pairCache;
+
+    private ConversationServiceImpl conversationService;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        conversationService = new ConversationServiceImpl(
+                validationClient, conversationRepo, pairCache, userProjection, new TaskExecutorAdapter(Runnable::run));
+        when(userProjection.isCaughtUp()).thenReturn(true);
+        when(userProjection.missing(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void createConversation_NewPair_CreatedFromOrderedKey() {
+        ConversationKey key = ConversationKey.of(alice, bob);
+        Conversation inserted = stored(key);
+        when(conversationRepo.getOrCreate(key)).thenReturn(new GetOrCreateResult(inserted, true));
+
+        ApiResponse<ConversationResponse> response = conversationService.createConversation(bob, alice).join();
+
+        assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        assertEquals(inserted.getId(), response.getData().getId());
+        verify(conversationRepo, times(1)).getOrCreate(key);
+        verify(pairCache).put(inserted);
+        verifyNoMoreInteractions(conversationRepo);
+    }
+
+    @Test
+    void createConversation_ExistingPair_ConflictWithoutSecondQuery() {
+        ConversationKey key = ConversationKey.of(alice, bob);
+        when(conversationRepo.getOrCreate(key)).thenReturn(new GetOrCreateResult(stored(key), false));
+
+        ApiResponse<ConversationResponse> response = conversationService.createConversation(alice, bob).join();
+
+        assertEquals(HttpStatus.CONFLICT.value(), response.getStatus());
+        assertEquals("Conversation between these users already exists", response.getMessage());
+        assertNull(response.getData());
+        verify(conversationRepo, times(1)).getOrCreate(key);
+        verifyNoMoreInteractions(conversationRepo);
+    }
+
+    @Test
+    void createConversation_CaughtUpButIdUnknown_AsksAuthService() {
+        ConversationKey key = ConversationKey.of(alice, bob);
+        when(userProjection.missing(anyCollection())).thenReturn(List.of(bob));
+        when(validationClient.validate(anyString(), eq(List.of(bob)))).thenReturn(
+                CompletableFuture.completedFuture(new UserValidationResponse("c", true, "All users exist")));
+        when(conversationRepo.getOrCreate(key)).thenReturn(new GetOrCreateResult(stored(key), true));
+
+        ApiResponse<ConversationResponse> response = conversationService.createConversation(alice, bob).join();
+
+        assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        verify(validationClient).validate(anyString(), eq(List.of(bob)));
+    }
+
+    @Test
+    void createConversation_ValidationReplied_DatabaseStepRunsOnTheTaskExecutor() {
+        List<Runnable> queued = new ArrayList<>();
+        conversationService = new ConversationServiceImpl(
+                validationClient, conversationRepo, pairCache, userProjection, new TaskExecutorAdapter(queued::add));
+        ConversationKey key = ConversationKey.of(alice, bob);
+        when(conversationRepo.getOrCreate(key)).thenReturn(new GetOrCreateResult(stored(key), true));
+
+        CompletableFuture<ApiResponse<ConversationResponse>> pending = conversationService.createConversation(alice, bob);
+
+        assertFalse(pending.isDone());
+        verifyNoInteractions(conversationRepo);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals(HttpStatus.CREATED.value(), pending.join().getStatus());
+    }
+
+    @Test
+    void createConversation_ValidationTimesOut_GatewayTimeout() {
+        when(userProjection.missing(anyCollection())).thenReturn(List.of(bob));
+        when(validationClient.validate(anyString(), anyList())).thenReturn(
+                CompletableFuture.failedFuture(new KafkaReplyTimeoutException("Reply timed out")));
+
+        ApiResponse<ConversationResponse> response = conversationService.createConversation(alice, bob).join();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT.value(), response.getStatus());
+        verifyNoInteractions(conversationRepo);
+    }
+
+    @Test
+    void createConversation_DatabaseStepFails_InternalServerError() {
+        when(conversationRepo.getOrCreate(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        ApiResponse<ConversationResponse> response = conversationService.createConversation(alice, bob).join();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), response.getStatus());
+        assertEquals("connection refused", response.getMessage());
+        verifyNoInteractions(pairCache);
+    }
+
+    private static Conversation stored(ConversationKey key) {
+        return Conversation.builder()
+                .id(UUID.randomUUID())
+                .user1Id(key.user1Id())
+                .user2Id(key.user2Id())
+                .createdAt(Instant.now())
+                .build();
+    }
+}
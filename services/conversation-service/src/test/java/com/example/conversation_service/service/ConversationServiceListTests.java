@@ -0,0 +1,110 @@
+package com.example.conversation_service.service;
+
+import com.example.common.dto.ApiResponse;
+import com.example.conversation_service.dto.ConversationCursor;
+import com.example.conversation_service.dto.ConversationPage;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.kafka.UserProjection;
+import com.example.conversation_service.kafka.UserValidationClient;
+import com.example.conversation_service.repository.ConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationServiceListTests {
+
+    @Mock
+    private UserValidationClient validationClient;
+
+    @Mock
+    private ConversationRepository conversationRepo;
+
+    @Mock
+    private UserProjection userProjection;
+
+    @Mock
+    private ConversationPairCache pairCache;
+
+    private ConversationServiceImpl conversationService;
+
+    private final UUID alice = UUID.randomUUID();
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void setUp() {
+        conversationService = new ConversationServiceImpl(
+                validationClient, conversationRepo, pairCache, userProjection, new TaskExecutorAdapter(Runnable::run));
+    }
+
+    @Test
+    void listConversations_MoreRowsThanLimit_PageEndsWithCursorOfLastRow() {
+        List<Conversation> rows = conversations(3);
+        when(conversationRepo.findPageForUser(alice, null, 3)).thenReturn(rows);
+
+        ApiResponse<ConversationPage> response = conversationService.listConversations(alice, null, 2);
+
+        ConversationPage page = response.getData();
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(2, page.getConversations().size());
+        assertEquals(new ConversationCursor(rows.get(1).getCreatedAt(), rows.get(1).getId()),
+                ConversationCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void listConversations_CursorGiven_LastPageHasNoCursor() {
+        ConversationCursor after = new ConversationCursor(now, UUID.randomUUID());
+        when(conversationRepo.findPageForUser(alice, after, 21)).thenReturn(conversations(1));
+
+        ApiResponse<ConversationPage> response = conversationService.listConversations(alice, after.encode(), 20);
+
+        assertEquals(1, response.getData().getConversations().size());
+        assertNull(response.getData().getNextCursor());
+    }
+
+    @Test
+    void listConversations_LimitOutOfRange_Clamped() {
+        when(conversationRepo.findPageForUser(eq(alice), any(), anyInt())).thenReturn(List.of());
+
+        conversationService.listConversations(alice, null, 10_000);
+        conversationService.listConversations(alice, null, 0);
+
+        verify(conversationRepo).findPageForUser(alice, null, 101);
+        verify(conversationRepo).findPageForUser(alice, null, 2);
+    }
+
+    @Test
+    void listConversations_MalformedCursor_BadRequestWithoutQuery() {
+        ApiResponse<ConversationPage> response = conversationService.listConversations(alice, "not-a-cursor", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+        verifyNoInteractions(conversationRepo);
+    }
+
+    private List<Conversation> conversations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Conversation.builder()
+                        .id(UUID.randomUUID())
+                        .user1Id(alice)
+                        .user2Id(UUID.randomUUID())
+                        .createdAt(now.minusSeconds(i))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.conversation_service.service;
+
+import com.example.common.dto.ApiResponse;
+import com.example.common.id.UuidV7;
+import com.example.conversation_service.dto.ChatFrame;
+import com.example.conversation_service.dto.MessagePage;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.Message;
+import com.example.conversation_service.kafka.ChatMessageRelay;
+import com.example.conversation_service.repository.ConversationRepository;
+import com.example.conversation_service.repository.MessageRepository;
+import com.example.conversation_service.repository.UnreadCounterRepository;
+import com.example.conversation_service.websocket.SessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MessageServiceImplTest {
+
+    private final ConversationRepository conversationRepo = mock(ConversationRepository.class);
+    private final MessageRepository messageRepo = mock(MessageRepository.class);
+    private final MessageWriter messageWriter = mock(MessageWriter.class);
+    private final UnreadCounterRepository unreadCounters = mock(UnreadCounterRepository.class);
+    private final SessionRegistry sessionRegistry = mock(SessionRegistry.class);
+    private final ChatMessageRelay relay = mock(ChatMessageRelay.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final Conversation conversation = Conversation.builder()
+            .id(UUID.randomUUID())
+            .user1Id(alice)
+            .user2Id(bob)
+            .createdAt(Instant.now())
+            .build();
+    private MessageServiceImpl messageService;
+
+    @BeforeEach
+    void setUp() {
+        messageService = new MessageServiceImpl(
+                conversationRepo, messageRepo, messageWriter, unreadCounters, new TaskExecutorAdapter(Runnable::run), sessionRegistry,
+                relay, objectMapper, new SimpleMeterRegistry(), 2000, 100);
+        when(conversationRepo.findById(conversation.getId())).thenReturn(Optional.of(conversation));
+        when(messageWriter.append(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+    }
+
+    @Test
+    void send_Participant_SameFrameToBothParticipantsAndOneLookup() throws Exception {
+        messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi"));
+        messageService.send(bob, new ChatFrame.Send(conversation.getId(), "hello"));
+
+        ArgumentCaptor<TextMessage> toBob = ArgumentCaptor.forClass(TextMessage.class);
+        ArgumentCaptor<TextMessage> toAlice = ArgumentCaptor.forClass(TextMessage.class);
+        verify(sessionRegistry, times(2)).deliver(eq(bob), toBob.capture());
+        verify(sessionRegistry, times(2)).deliver(eq(alice), toAlice.capture());
+        assertSame(toBob.getAllValues().get(0), toAlice.getAllValues().get(0));
+
+        ChatFrame frame = objectMapper.readValue(toBob.getAllValues().get(0).getPayload(), ChatFrame.class);
+        ChatFrame.Message message = assertInstanceOf(ChatFrame.Message.class, frame);
+        assertEquals(alice, message.senderId());
+        assertEquals("hi", message.content());
+        verify(conversationRepo, times(1)).findById(conversation.getId());
+    }
+
+    @Test
+    void send_Participant_SameBytesRelayedToOtherNodes() {
+        messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi")).join();
+
+        ArgumentCaptor<TextMessage> local = ArgumentCaptor.forClass(TextMessage.class);
+        ArgumentCaptor<byte[]> relayed = ArgumentCaptor.forClass(byte[].class);
+        verify(sessionRegistry).deliver(eq(bob), local.capture());
+        verify(relay).publish(eq(conversation.getId()), eq(alice), eq(bob), relayed.capture());
+        assertArrayEquals(local.getValue().asBytes(), relayed.getValue());
+    }
+
+    @Test
+    void send_NotAParticipant_RejectedWithoutDelivery() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageService.send(UUID.randomUUID(), new ChatFrame.Send(conversation.getId(), "hi")));
+
+        verify(sessionRegistry, never()).deliver(any(), any());
+    }
+
+    @Test
+    void send_UnknownConversationOrEmptyContent_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageService.send(alice, new ChatFrame.Send(UUID.randomUUID(), "hi")));
+        assertThrows(IllegalArgumentException.class,
+                () -> messageService.send(alice, new ChatFrame.Send(conversation.getId(), " ")));
+
+        verify(sessionRegistry, never()).deliver(any(), any());
+        verify(messageWriter, never()).append(any());
+        verifyNoInteractions(relay);
+    }
+
+    @Test
+    void send_ContentWithNul_RejectedBeforeQueueing() {
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                () -> messageService.send(alice, new ChatFrame.Send(conversation.getId(), "a\u0000b")));
+
+        assertTrue(failure.getMessage().contains("NUL"));
+        verify(messageWriter, never()).append(any());
+    }
+
+    @Test
+    void send_Participant_StoredBeforeDelivery() {
+        ChatFrame.Message sent = messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi")).join();
+
+        ArgumentCaptor<Message> stored = ArgumentCaptor.forClass(Message.class);
+        InOrder inOrder = inOrder(messageWriter, sessionRegistry);
+        inOrder.verify(messageWriter).append(stored.capture());
+        inOrder.verify(sessionRegistry).deliver(eq(bob), any());
+        assertEquals(sent.id(), stored.getValue().id());
+        assertEquals(UuidV7.timestamp(sent.id()), sent.sentAt());
+    }
+
+    @Test
+    void send_NotYetDurable_NoDeliveryUntilStored() {
+        CompletableFuture<Message> durable = new CompletableFuture<>();
+        when(messageWriter.append(any())).thenReturn(durable);
+
+        CompletableFuture<ChatFrame.Message> sent = messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi"));
+
+        assertFalse(sent.isDone());
+        verify(sessionRegistry, never()).deliver(any(), any());
+
+        durable.complete(new Message(conversation.getId(), UuidV7.next(), alice, "hi", Instant.now()));
+        assertTrue(sent.isDone());
+        verify(sessionRegistry).deliver(eq(bob), any());
+    }
+
+    @Test
+    void send_QueueFull_FailsWithoutDelivery() {
+        when(messageWriter.append(any()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("Message queue is full")));
+
+        CompletableFuture<ChatFrame.Message> sent = messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi"));
+
+        CompletionException failure = assertThrows(CompletionException.class, sent::join);
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        verify(sessionRegistry, never()).deliver(any(), any());
+    }
+
+    @Test
+    void send_Consecutive_IdsIncrease() {
+        ChatFrame.Message first = messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi")).join();
+        ChatFrame.Message second = messageService.send(bob, new ChatFrame.Send(conversation.getId(), "hello")).join();
+
+        assertTrue(first.id().compareTo(second.id()) < 0);
+    }
+
+    @Test
+    void send_Stored_RecipientUnreadCountIncremented() {
+        messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi")).join();
+
+        verify(unreadCounters).increment(bob, conversation.getId());
+        verify(unreadCounters, never()).increment(eq(alice), any());
+    }
+
+    @Test
+    void send_CounterStoreDown_MessageStillDelivered() {
+        doThrow(new IllegalStateException("redis down")).when(unreadCounters).increment(any(), any());
+
+        ChatFrame.Message sent = messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hi")).join();
+
+        assertEquals("hi", sent.content());
+        verify(sessionRegistry).deliver(eq(bob), any());
+    }
+
+    @Test
+    void markRead_Participant_CountReset() {
+        messageService.markRead(bob, conversation.getId());
+
+        verify(unreadCounters).reset(bob, conversation.getId());
+    }
+
+    @Test
+    void markRead_NotAParticipant_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.markRead(UUID.randomUUID(), conversation.getId()));
+
+        verifyNoInteractions(unreadCounters);
+    }
+
+    @Test
+    void unreadCounts_ConversationList_OneLookupForAll() {
+        List<UUID> ids = List.of(conversation.getId(), UUID.randomUUID());
+        when(unreadCounters.counts(bob, ids)).thenReturn(Map.of(ids.get(0), 3L, ids.get(1), 0L));
+
+        ApiResponse<Map<UUID, Long>> response = messageService.unreadCounts(bob, ids);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(3L, response.getData().get(conversation.getId()));
+        verify(unreadCounters, times(1)).counts(any(), any());
+    }
+
+    @Test
+    void unreadCounts_TooManyConversations_BadRequest() {
+        List<UUID> ids = Collections.nCopies(501, conversation.getId());
+
+        ApiResponse<Map<UUID, Long>> response = messageService.unreadCounts(bob, ids);
+
+        assertEquals(400, response.getStatus());
+        verifyNoInteractions(unreadCounters);
+    }
+
+    @Test
+    void history_MoreThanLimit_PageWithCursorAtOldestReturned() {
+        List<Message> rows = messages(4);
+        when(messageRepo.findPage(conversation.getId(), null, 4)).thenReturn(rows);
+
+        ApiResponse<MessagePage> response = messageService.history(alice, conversation.getId(), null, 3);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(3, response.getData().getMessages().size());
+        assertEquals(rows.get(2).id(), response.getData().getNextBefore());
+    }
+
+    @Test
+    void history_LastPage_NoCursor() {
+        UUID before = UuidV7.next();
+        when(messageRepo.findPage(conversation.getId(), before, 4)).thenReturn(messages(2));
+
+        ApiResponse<MessagePage> response = messageService.history(alice, conversation.getId(), before, 3);
+
+        assertEquals(2, response.getData().getMessages().size());
+        assertNull(response.getData().getNextBefore());
+    }
+
+    @Test
+    void history_LimitOutOfRange_Clamped() {
+        when(messageRepo.findPage(any(), any(), anyInt())).thenReturn(List.of());
+
+        messageService.history(alice, conversation.getId(), null, 0);
+        messageService.history(alice, conversation.getId(), null, 10_000);
+
+        verify(messageRepo).findPage(conversation.getId(), null, 2);
+        verify(messageRepo).findPage(conversation.getId(), null, 101);
+    }
+
+    @Test
+    void history_NotAParticipant_ForbiddenWithoutQuery() {
+        ApiResponse<MessagePage> response = messageService.history(UUID.randomUUID(), conversation.getId(), null, 50);
+
+        assertEquals(403, response.getStatus());
+        assertNull(response.getData());
+        verifyNoInteractions(messageRepo);
+    }
+
+    @Test
+    void history_UnknownConversation_Forbidden() {
+        UUID unknown = UUID.randomUUID();
+        when(conversationRepo.findById(unknown)).thenReturn(Optional.empty());
+
+        ApiResponse<MessagePage> response = messageService.history(alice, unknown, null, 50);
+
+        assertEquals(403, response.getStatus());
+        verifyNoInteractions(messageRepo);
+    }
+
+    // Newest first, as the repository returns them
+    private List<Message> messages(int count) {
+        List<Message> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = UuidV7.next();
+            rows.addFirst(new Message(conversation.getId(), id, alice, "m" + i, UuidV7.timestamp(id)));
+        }
+        return rows;
+    }
+}
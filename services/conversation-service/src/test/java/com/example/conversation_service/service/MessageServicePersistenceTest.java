@@ -0,0 +1,82 @@
+package com.example.conversation_service.service;
+
+import com.example.conversation_service.dto.ChatFrame;
+import com.example.conversation_service.entity.Conversation;
+import com.example.conversation_service.entity.ConversationKey;
+import com.example.conversation_service.entity.Message;
+import com.example.conversation_service.kafka.ChatMessageRelay;
+import com.example.conversation_service.repository.ConversationRepository;
+import com.example.conversation_service.repository.MessageRepository;
+import com.example.conversation_service.repository.UnreadCounterRepository;
+import com.example.conversation_service.websocket.SessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The send path against a real Postgres migrated by Flyway: the conversation is read back through JPA
+ * and the message goes through the group-commit writer. Not transactional, so every read is a fresh
+ * session and the writer thread sees committed rows only.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@Import(MessageRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MessageServicePersistenceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ConversationRepository conversationRepo;
+
+    @Autowired
+    private MessageRepository messageRepo;
+
+    @Test
+    void send_StoredConversation_MessageCommittedAndAcknowledged() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        Conversation conversation = conversationRepo.getOrCreate(ConversationKey.of(alice, bob)).conversation();
+        MessageWriter writer = new MessageWriter(messageRepo, new SimpleMeterRegistry(), 100, 10, 1);
+        writer.start();
+        try {
+            MessageServiceImpl messageService = new MessageServiceImpl(conversationRepo, messageRepo, writer,
+                    mock(UnreadCounterRepository.class), new TaskExecutorAdapter(Runnable::run),
+                    mock(SessionRegistry.class), mock(ChatMessageRelay.class),
+                    new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(), 2000, 100);
+
+            ChatFrame.Message ack = messageService.send(alice, new ChatFrame.Send(conversation.getId(), "hello"))
+                    .get(5, TimeUnit.SECONDS);
+
+            List<Message> stored = messageRepo.findPage(conversation.getId(), null, 10);
+            assertEquals(1, stored.size());
+            assertEquals(ack.id(), stored.get(0).id());
+            assertEquals(alice, stored.get(0).senderId());
+            assertEquals("hello", stored.get(0).content());
+        } finally {
+            writer.stop();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.conversation_service.service;
+
+import com.example.common.id.UuidV7;
+import com.example.conversation_service.entity.Message;
+import com.example.conversation_service.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class MessageWriterTest {
+
+    private final MessageRepository messageRepo = mock(MessageRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID conversationId = UuidV7.next();
+    private MessageWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void append_ManyMessages_StoredInFewBatchesAndAllAcknowledged() {
+        writer = new MessageWriter(messageRepo, meterRegistry, 1000, 100, 50);
+        List<CompletableFuture<Message>> acks = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            acks.add(writer.append(message("m" + i)));
+        }
+        writer.start();
+
+        CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Message>> batches = ArgumentCaptor.forClass(List.class);
+        verify(messageRepo, times(3)).appendAll(batches.capture());
+        assertEquals(List.of(100, 100, 50), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals(250, meterRegistry.get("conversation.messages.batch_size").summary().totalAmount());
+    }
+
+    @Test
+    void append_BeforeCommit_NotAcknowledged() throws InterruptedException {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            committing.countDown();
+            commit.await();
+            return null;
+        }).when(messageRepo).appendAll(anyList());
+        writer = new MessageWriter(messageRepo, meterRegistry, 1000, 100, 1);
+        writer.start();
+
+        CompletableFuture<Message> ack = writer.append(message("hi"));
+
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        assertFalse(ack.isDone());
+        commit.countDown();
+        assertEquals("hi", ack.join().content());
+    }
+
+    @Test
+    void append_BatchFails_EveryMessageOfTheBatchFails() {
+        doThrow(new IllegalStateException("database down")).when(messageRepo).appendAll(anyList());
+        writer = new MessageWriter(messageRepo, meterRegistry, 1000, 100, 50);
+        CompletableFuture<Message> first = writer.append(message("a"));
+        CompletableFuture<Message> second = writer.append(message("b"));
+        writer.start();
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        verify(messageRepo, times(1)).appendAll(anyList());
+    }
+
+    @Test
+    void append_OneRowRefused_OnlyThatMessageFails() {
+        doAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.content().equals("bad"))) {
+                throw new DataIntegrityViolationException("invalid byte sequence");
+            }
+            return null;
+        }).when(messageRepo).appendAll(anyList());
+        writer = new MessageWriter(messageRepo, meterRegistry, 1000, 100, 50);
+        CompletableFuture<Message> before = writer.append(message("a"));
+        CompletableFuture<Message> bad = writer.append(message("bad"));
+        CompletableFuture<Message> after = writer.append(message("b"));
+        writer.start();
+
+        assertEquals("a", before.join().content());
+        assertEquals("b", after.join().content());
+        CompletionException failure = assertThrows(CompletionException.class, bad::join);
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+        // The batch once, then each of its three messages alone
+        verify(messageRepo, times(4)).appendAll(anyList());
+    }
+
+    @Test
+    void append_QueueFull_RejectedImmediately() {
+        writer = new MessageWriter(messageRepo, meterRegistry, 2, 100, 50);
+        writer.append(message("a"));
+        writer.append(message("b"));
+
+        CompletableFuture<Message> refused = writer.append(message("c"));
+
+        CompletionException failure = assertThrows(CompletionException.class, refused::join);
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        assertEquals(2, writer.queueDepth());
+        assertEquals(1, meterRegistry.get("conversation.messages.rejected").counter().count());
+        verify(messageRepo, never()).appendAll(any());
+    }
+
+    @Test
+    void stop_QueuedMessages_FlushedBeforeExit() throws InterruptedException {
+        writer = new MessageWriter(messageRepo, meterRegistry, 1000, 100, 1);
+        writer.start();
+        CompletableFuture<Message> ack = writer.append(message("last"));
+
+        writer.stop();
+
+        assertTrue(ack.isDone());
+        assertFalse(ack.isCompletedExceptionally());
+    }
+
+    private Message message(String content) {
+        UUID id = UuidV7.next();
+        return new Message(conversationId, id, UuidV7.next(), content, UuidV7.timestamp(id));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.conversation_service.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SessionRegistry registry = new SessionRegistry(meterRegistry);
+    private final UUID alice = UUID.randomUUID();
+    private final TextMessage frame = new TextMessage("{}");
+
+    @Test
+    void deliver_EverySessionOfTheUser_OthersUntouched() throws IOException {
+        WebSocketSession phone = mock(WebSocketSession.class);
+        WebSocketSession laptop = mock(WebSocketSession.class);
+        WebSocketSession someoneElse = mock(WebSocketSession.class);
+        registry.register(alice, phone);
+        registry.register(alice, laptop);
+        registry.register(UUID.randomUUID(), someoneElse);
+
+        assertEquals(2, registry.deliver(alice, frame));
+
+        verify(phone).sendMessage(frame);
+        verify(laptop).sendMessage(frame);
+        verifyNoInteractions(someoneElse);
+        assertEquals(3.0, meterRegistry.get("conversation.websocket.sessions").gauge().value());
+        assertEquals(2.0, meterRegistry.get("conversation.websocket.users").gauge().value());
+    }
+
+    @Test
+    void deliver_OneSessionFails_RestStillServed() throws IOException {
+        WebSocketSession broken = mock(WebSocketSession.class);
+        WebSocketSession healthy = mock(WebSocketSession.class);
+        doThrow(new IOException("Broken pipe")).when(broken).sendMessage(frame);
+        registry.register(alice, broken);
+        registry.register(alice, healthy);
+
+        assertEquals(1, registry.deliver(alice, frame));
+        verify(healthy).sendMessage(frame);
+    }
+
+    @Test
+    void unregister_LastSession_UserDropped() {
+        WebSocketSession session = mock(WebSocketSession.class);
+        registry.register(alice, session);
+        registry.register(alice, session);
+        assertEquals(1, registry.sessionCount());
+
+        registry.unregister(alice, session);
+        registry.unregister(alice, session);
+
+        assertFalse(registry.isConnected(alice));
+        assertEquals(0, registry.sessionCount());
+        assertEquals(0, registry.deliver(alice, frame));
+    }
+}